@@ -0,0 +1,41 @@
+package com.github.herobrine;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Octets alloués par le thread courant, d'après la JVM (HotSpot).
+ * Sert à vérifier qu'une portion de code n'alloue rien en régime établi :
+ * on lit le compteur avant et après, la différence est ce qui a été alloué.
+ */
+public final class AllocationMeter {
+    private static final com.sun.management.ThreadMXBean BEAN = findBean();
+
+    private AllocationMeter() {
+    }
+
+    private static com.sun.management.ThreadMXBean findBean() {
+        try {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+                if (sunBean.isThreadAllocatedMemorySupported()) {
+                    sunBean.setThreadAllocatedMemoryEnabled(true);
+                    return sunBean;
+                }
+            }
+        } catch (LinkageError | RuntimeException ignored) {
+            // JVM sans com.sun.management : pas de mesure
+        }
+        return null;
+    }
+
+    public static boolean isSupported() {
+        return BEAN != null;
+    }
+
+    // Compteur cumulé du thread courant, -1 si la JVM ne le fournit pas
+    public static long currentThreadAllocatedBytes() {
+        return BEAN != null ? BEAN.getCurrentThreadAllocatedBytes() : -1;
+    }
+}
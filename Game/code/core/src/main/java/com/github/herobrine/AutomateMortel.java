@@ -17,10 +17,24 @@ public abstract class AutomateMortel {
     }
 
     public abstract void update(float delta);
+
+    // Place l'automate là où l'aurait amené une simulation de elapsed secondes depuis le chargement
+    // du niveau (client multijoueur, calé sur le serveur) ; rien à faire pour un automate immobile
+    public void setElapsed(double elapsed) {
+    }
     public abstract void render(SpriteBatch batch, float cameraX);
-    public abstract void dispose();
+
+    // Rendu entre deux ticks de simulation ; les automates immobiles n'ont rien à interpoler
+    public void render(SpriteBatch batch, float cameraX, float alpha) {
+        render(batch, cameraX);
+    }
 
     // La méthode est correctement surchargée par les classes filles.
     // Son implémentation ici n'a pas d'importance, mais elle doit exister.
     public abstract boolean kill(Joueur joueur);
+
+    public float getX() { return x; }
+    public float getY() { return y; }
+    public float getWidth() { return width; }
+    public float getHeight() { return height; }
 }
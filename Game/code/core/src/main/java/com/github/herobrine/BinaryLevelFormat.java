@@ -0,0 +1,153 @@
+package com.github.herobrine;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+/**
+ * Format binaire compilé des niveaux (.hbl), produit par LevelCompiler.
+ * Lu directement depuis un ByteBuffer (contenu du fichier lu d'un bloc), sans
+ * aucune allocation par tuile. Un fichier tronqué ou corrompu lève une IOException
+ * avant toute boucle ou allocation à sa mesure.
+ *
+ * Disposition (big-endian) :
+ *   int   MAGIC ('HBLV')
+ *   short VERSION
+ *   short hauteur en tuiles
+ *   int   largeur en tuiles
+ *   int   mots de 64 bits par ligne
+ *   long[hauteur * mots] plan de bits des blocs du dessus, ligne 0 en premier,
+ *         bit (gx & 63) du mot (gx >>> 6)
+ *   puis quatre tables d'entités, chacune précédée de son nombre d'entrées :
+ *   creepers (startX, endX, y), pics (x, y), portes (x, y), plaques (x, y)
+ * Les blocs du dessous ne sont pas stockés : ils se déduisent des blocs du dessus.
+ */
+public final class BinaryLevelFormat {
+    public static final String EXTENSION = "hbl";
+    public static final int MAGIC = 0x48424C56; // "HBLV"
+    public static final short VERSION = 1;
+
+    private BinaryLevelFormat() {
+    }
+
+    public static void read(ByteBuffer buffer, LevelRecordHandler handler) throws IOException {
+        buffer.order(ByteOrder.BIG_ENDIAN); // comme DataOutputStream, quel que soit l'ordre natif
+        if (buffer.remaining() < 16 || buffer.getInt() != MAGIC) {
+            throw new IOException("Fichier de niveau compilé invalide");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Version de niveau compilé non supportée : " + version);
+        }
+        int height = buffer.getShort();
+        int width = buffer.getInt();
+        int wordsPerRow = buffer.getInt();
+        if (height < 0 || height > Carte.MAP_HEIGHT_TILES || width < 0 || wordsPerRow != (width + 63) >>> 6) {
+            throw new IOException("En-tête de niveau compilé invalide : " + width + "x" + height);
+        }
+        require(buffer, (long) height * wordsPerRow * Long.BYTES);
+
+        // Chaque suite de bits à 1 d'une ligne devient un segment T d'une tuile de haut
+        for (int gy = 0; gy < height; gy++) {
+            int runStart = -1;
+            for (int w = 0; w < wordsPerRow; w++) {
+                long word = buffer.getLong();
+                int base = w << 6;
+                for (int bit = 0; bit < 64; bit++) {
+                    int gx = base + bit;
+                    if (gx >= width) break;
+                    boolean solid = (word & (1L << bit)) != 0;
+                    if (solid && runStart < 0) {
+                        runStart = gx;
+                    } else if (!solid && runStart >= 0) {
+                        handler.onTop(runStart, gy, gx - 1, gy);
+                        runStart = -1;
+                    }
+                }
+            }
+            if (runStart >= 0) {
+                handler.onTop(runStart, gy, width - 1, gy);
+            }
+        }
+
+        int count = readCount(buffer, 3);
+        for (int i = 0; i < count; i++) {
+            handler.onCreeper(buffer.getInt(), buffer.getInt(), buffer.getInt());
+        }
+        count = readCount(buffer, 2);
+        for (int i = 0; i < count; i++) {
+            handler.onPics(buffer.getInt(), buffer.getInt());
+        }
+        count = readCount(buffer, 2);
+        for (int i = 0; i < count; i++) {
+            handler.onDoor(buffer.getInt(), buffer.getInt());
+        }
+        count = readCount(buffer, 2);
+        for (int i = 0; i < count; i++) {
+            handler.onPressurePlate(buffer.getInt(), buffer.getInt());
+        }
+    }
+
+    // Nombre d'entrées d'une table d'entités, dont les intsPerEntry entiers doivent tous être présents
+    private static int readCount(ByteBuffer buffer, int intsPerEntry) throws IOException {
+        require(buffer, Integer.BYTES);
+        int count = buffer.getInt();
+        if (count < 0) throw new IOException("Nombre d'entités invalide : " + count);
+        require(buffer, (long) count * intsPerEntry * Integer.BYTES);
+        return count;
+    }
+
+    private static void require(ByteBuffer buffer, long bytes) throws IOException {
+        if (bytes > buffer.remaining()) {
+            throw new IOException("Niveau compilé tronqué : " + bytes + " octets attendus, " + buffer.remaining() + " restants");
+        }
+    }
+
+    public static void write(LevelData data, OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        int width = data.widthTiles;
+        int height = Carte.MAP_HEIGHT_TILES;
+        int wordsPerRow = (width + 63) >>> 6;
+
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeShort(height);
+        out.writeInt(width);
+        out.writeInt(wordsPerRow);
+
+        for (int gy = 0; gy < height; gy++) {
+            for (int w = 0; w < wordsPerRow; w++) {
+                long word = 0L;
+                int base = w << 6;
+                for (int bit = 0; bit < 64 && base + bit < width; bit++) {
+                    if (data.tiles.get(base + bit, gy) == Carte.TILE_TOP) {
+                        word |= 1L << bit;
+                    }
+                }
+                out.writeLong(word);
+            }
+        }
+
+        out.writeInt(data.creepers.size());
+        for (int[] c : data.creepers) {
+            out.writeInt(c[0]);
+            out.writeInt(c[1]);
+            out.writeInt(c[2]);
+        }
+        writePositions(out, data.pics);
+        writePositions(out, data.doors);
+        writePositions(out, data.pressurePlates);
+        out.flush();
+    }
+
+    private static void writePositions(DataOutputStream out, List<int[]> positions) throws IOException {
+        out.writeInt(positions.size());
+        for (int[] p : positions) {
+            out.writeInt(p[0]);
+            out.writeInt(p[1]);
+        }
+    }
+}
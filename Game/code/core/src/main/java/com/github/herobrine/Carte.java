@@ -1,40 +1,85 @@
 package com.github.herobrine;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.files.FileHandle;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Rectangle; // NOUVEL IMPORT
+import com.badlogic.gdx.utils.Array;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.StringTokenizer;
 
 public class Carte {
-    private final Texture blockTop;
-    private final Texture blockBottom;
-    private final int TILE = 60;
-    private final int MAP_WIDTH_TILES = 64;
-    private final int MAP_HEIGHT_TILES = 18;
-    
-    private final int[][] map = new int[MAP_WIDTH_TILES][MAP_HEIGHT_TILES];
+    private final TextureRegion blockTop;
+    private final TextureRegion blockBottom;
+    // Taille d'une tuile en pixels ; sert aussi d'unité aux positions quantifiées du réseau
+    public static final int TILE = 60;
+    static final int MIN_MAP_WIDTH_TILES = 64;
+    // Borne des niveaux lus : une ligne malformée ne doit pas allouer des tuiles jusqu'à épuiser la mémoire
+    // (65536 colonnes sur 18 lignes, environ 1,2 Mo de tuiles)
+    static final int MAX_MAP_WIDTH_TILES = 1 << 16;
+    static final int MAP_HEIGHT_TILES = 18;
+    static final byte TILE_TOP = 1;
+    static final byte TILE_BOTTOM = 2;
+
+    // Tuiles rangées par chunks : la largeur du niveau n'est plus limitée à 64 colonnes
+    private ChunkedTileStore tiles = new ChunkedTileStore();
+    private int mapWidthTiles = MIN_MAP_WIDTH_TILES;
+    // Tuiles figées dans un SpriteCache une fois le niveau chargé
+    private StaticTileLayer staticLayer = new StaticTileLayer();
+    // Sprites des automates, tous dans la même texture d'atlas ; null pour une carte sans rendu (serveur)
+    private final GameAtlas atlas;
+    private Porte.DoorStateNotifier doorStateNotifier;
     
     private final List<AutomateMortel> automates = new ArrayList<>();
     private final List<AutomateNonMortel> automatesNonMortels = new ArrayList<>(); // NOUVEAU : Liste pour les automates non mortels
     private final Map<Integer, Porte> portesParId = new HashMap<>();
+    // Automates rangés par colonne de tuiles : seuls ceux proches du joueur sont testés
+    private final SpatialHash<AutomateMortel> mortelsParColonne = new SpatialHash<>(TILE);
+    private final SpatialHash<AutomateNonMortel> nonMortelsParColonne = new SpatialHash<>(TILE);
+    private final Array<AutomateMortel> candidatsMortels = new Array<>();
+    private final Array<AutomateNonMortel> candidatsNonMortels = new Array<>();
     private int prochainIdPorte = 1;
     private String currentLevelPath = null;
 
-    public Carte(Texture blockTop, Texture blockBottom) {
-        this.blockTop = blockTop;
-        this.blockBottom = blockBottom;
+    public Carte(GameAtlas atlas) {
+        this.atlas = atlas;
+        this.blockTop = GameAtlas.regionOrNull(atlas, GameAtlas.BLOCK_TOP);
+        this.blockBottom = GameAtlas.regionOrNull(atlas, GameAtlas.BLOCK_BOTTOM);
+    }
+
+    /**
+     * Carte sans aucune texture, pour simuler un niveau sans contexte OpenGL
+     * (serveur dédié) : mêmes tuiles, mêmes automates, mais rien à dessiner.
+     */
+    public Carte() {
+        this(null);
+    }
+
+    public boolean isHeadless() {
+        return atlas == null;
+    }
+
+    // Les portes créées par la suite préviendront ce notifier de leurs changements d'état
+    public void setDoorStateNotifier(Porte.DoorStateNotifier notifier) {
+        this.doorStateNotifier = notifier;
+        for (Porte porte : portesParId.values()) {
+            porte.setDoorStateNotifier(notifier);
+        }
     }
 
+    // Chargement synchrone ; voir LevelLoader pour le chargement en arrière-plan
     public void create(String levelPath) {
-        loadLevel(levelPath);
-        this.currentLevelPath = levelPath;
+        create(LevelData.parse(levelPath));
+    }
+
+    // Installe d'un coup un niveau déjà lu (ex. par le serveur, qui le lit hors de sa boucle)
+    public void create(LevelData data) {
+        StaticTileLayer layer = newStaticLayer(data);
+        layer.buildStep(Integer.MAX_VALUE);
+        apply(data, layer);
     }
 
     /**
@@ -46,7 +91,7 @@ public class Carte {
      */
     public float getGroundYAtGridX(int gridX) {
         if (gridX < 0) gridX = 0;
-        if (gridX >= MAP_WIDTH_TILES) gridX = MAP_WIDTH_TILES - 1;
+        if (gridX >= mapWidthTiles) gridX = mapWidthTiles - 1;
 
         float ground = findGroundInColumn(gridX);
         if (ground >= 0) {
@@ -54,7 +99,7 @@ public class Carte {
             return ground;
         }
 
-        for (int offset = 1; offset < MAP_WIDTH_TILES; offset++) {
+        for (int offset = 1; offset < mapWidthTiles; offset++) {
             if (gridX - offset >= 0) {
                 ground = findGroundInColumn(gridX - offset);
                 if (ground >= 0) {
@@ -62,7 +107,7 @@ public class Carte {
                     return ground;
                 }
             }
-            if (gridX + offset < MAP_WIDTH_TILES) {
+            if (gridX + offset < mapWidthTiles) {
                 ground = findGroundInColumn(gridX + offset);
                 if (ground >= 0) {
                     return ground;
@@ -76,218 +121,212 @@ public class Carte {
     // Cherche le sol dans une colonne spécifique
     private float findGroundInColumn(int gridX) {
         for (int gy = MAP_HEIGHT_TILES - 1; gy >= 0; gy--) {
-            if (map[gridX][gy] != 0) {
+            if (tiles.get(gridX, gy) != ChunkedTileStore.EMPTY) {
                 return (gy + 1) * TILE;
             }
         }
         return -1f;
     }
 
-    // Méthode de chargement du niveau à partir d'un fichier
-    private void loadLevel(String levelPath) {
+    /**
+     * Installe un niveau déjà lu et sa couche de tuiles déjà construite.
+     * Doit être appelé sur le thread de rendu ; remplace entièrement le niveau courant.
+     */
+    void apply(LevelData data, StaticTileLayer layer) {
         clear();
-        portesParId.clear();
-        prochainIdPorte = 1;
-
-        try {
-            FileHandle fh = Gdx.files.local(levelPath);
-            if (!fh.exists()) {
-                Gdx.app.error("Carte", "Impossible de charger le fichier : " + levelPath);
-                return;
-            }
-            String[] lines = fh.readString("UTF-8").split("\\r?\\n");
+        tiles = data.tiles;
+        mapWidthTiles = data.widthTiles;
+        staticLayer = layer;
 
-            for (String line : lines) {
-                line = line.trim();
-                if (line.isEmpty() || line.startsWith("#")) continue;
-
-                StringTokenizer st = new StringTokenizer(line);
-                if (!st.hasMoreTokens()) continue;
-
-                String type = st.nextToken().toUpperCase();
-                List<Integer> coords = new ArrayList<>();
-                while (st.hasMoreTokens()) {
-                    try { coords.add(Integer.parseInt(st.nextToken())); }
-                    catch (NumberFormatException ignored) {}
-                }
+        for (int[] c : data.creepers) {
+            automates.add(new Creeper(c[0], c[1], c[2], TILE, atlas));
+        }
+        for (int[] p : data.pics) {
+            automates.add(new Pics(p[0], p[1], TILE, atlas));
+        }
+        // NOUVEAU : Chargement des portes
+        for (int[] d : data.doors) {
+            // Les coordonnées sont en tuiles, on les convertit en pixels
+            int doorId = prochainIdPorte++;
+            Porte porte = new Porte(d[0] * TILE, d[1] * TILE, TILE, doorId, atlas);
+            porte.setDoorStateNotifier(doorStateNotifier);
+            automatesNonMortels.add(porte);
+            portesParId.put(doorId, porte);
+        }
+        // NOUVEAU : Chargement des plaques de pression
+        for (int[] pp : data.pressurePlates) {
+            // Les coordonnées sont en tuiles, on les convertit en pixels
+            PlaqueDePression plaque = new PlaqueDePression(pp[0] * TILE, pp[1] * TILE, TILE, atlas);
+            automatesNonMortels.add(plaque);
+        }
 
-                if (coords.isEmpty()) continue;
-
-                switch (type) {
-                    case "T":
-                        if (coords.size() >= 4) {
-                            int x1 = Math.min(coords.get(0), coords.get(2));
-                            int x2 = Math.max(coords.get(0), coords.get(2));
-                            int y1 = Math.min(coords.get(1), coords.get(3));
-                            int y2 = Math.max(coords.get(1), coords.get(3));
-                            for (int gx = x1; gx <= x2; gx++) {
-                                for (int gy = y1; gy <= y2; gy++) {
-                                    if (gx >= 0 && gx < MAP_WIDTH_TILES && gy >= 0 && gy < MAP_HEIGHT_TILES) {
-                                        map[gx][gy] = 1;
-                                    }
-                                }
-                            }
-                        } else if (coords.size() >= 2) {
-                            int gx = coords.get(0);
-                            int gy = coords.get(1);
-                            if (gx >= 0 && gx < MAP_WIDTH_TILES && gy >= 0 && gy < MAP_HEIGHT_TILES) {
-                                map[gx][gy] = 1;
-                            }
-                        }
-                        break;
-                    case "C":
-                        if (coords.size() >= 3) {
-                            int startX = coords.get(0);
-                            int y = coords.get(1);
-                            int endX = (coords.size() >= 4) ? coords.get(2) : startX;
-                            automates.add(new Creeper(Math.min(startX, endX), Math.max(startX, endX), y, TILE, this));
-                        }
-                        break;
-                    case "P":
-                        if (coords.size() >= 2) {
-                            automates.add(new Pics(coords.get(0), coords.get(1), TILE));
-                        }
-                        break;
-                    // NOUVEAU : Chargement des portes
-                    case "D":
-                        if (coords.size() >= 2) {
-                            // Les coordonnées sont en tuiles, on les convertit en pixels
-                            int doorId = prochainIdPorte++;
-                            Porte porte = new Porte(coords.get(0) * TILE, coords.get(1) * TILE, TILE, doorId);
-                            automatesNonMortels.add(porte);
-                            portesParId.put(doorId, porte);
-                        }
-                        break;
-                    // NOUVEAU : Chargement des plaques de pression
-                    case "PP":
-                        if (coords.size() >= 2) {
-                            // Les coordonnées sont en tuiles, on les convertit en pixels
-                            PlaqueDePression plaque = new PlaqueDePression(coords.get(0) * TILE, coords.get(1) * TILE, TILE);
-                            automatesNonMortels.add(plaque);
-                        }
-                        break;
-                }
-            }
-            
-            // NOUVEAU : Association des plaques de pression aux portes
-            // On parcourt toutes les plaques de pression pour leur assigner la porte la plus proche à leur droite.
-            for (AutomateNonMortel automate : automatesNonMortels) {
-                if (automate instanceof PlaqueDePression) {
-                    PlaqueDePression plaque = (PlaqueDePression) automate;
-                    Porte porteLaPlusProche = null;
-                    float distanceMin = Float.MAX_VALUE;
-
-                    for (AutomateNonMortel autreAutomate : automatesNonMortels) {
-                        if (autreAutomate instanceof Porte) {
-                            Porte porte = (Porte) autreAutomate;
-                            // On cherche une porte à droite de la plaque de pression
-                            float distance = porte.getX() - plaque.getX();
-
-                            // Si la porte est à droite (distance > 0) et plus proche que la précédente trouvée
-                            if (distance > 0 && distance < distanceMin) {
-                                distanceMin = distance;
-                                porteLaPlusProche = porte;
-                            }
+        // NOUVEAU : Association des plaques de pression aux portes
+        // On parcourt toutes les plaques de pression pour leur assigner la porte la plus proche à leur droite.
+        for (AutomateNonMortel automate : automatesNonMortels) {
+            if (automate instanceof PlaqueDePression) {
+                PlaqueDePression plaque = (PlaqueDePression) automate;
+                Porte porteLaPlusProche = null;
+                float distanceMin = Float.MAX_VALUE;
+
+                for (AutomateNonMortel autreAutomate : automatesNonMortels) {
+                    if (autreAutomate instanceof Porte) {
+                        Porte porte = (Porte) autreAutomate;
+                        // On cherche une porte à droite de la plaque de pression
+                        float distance = porte.getX() - plaque.getX();
+
+                        // Si la porte est à droite (distance > 0) et plus proche que la précédente trouvée
+                        if (distance > 0 && distance < distanceMin) {
+                            distanceMin = distance;
+                            porteLaPlusProche = porte;
                         }
                     }
-
-                    if (porteLaPlusProche != null) {
-                        plaque.setPorteAssociee(porteLaPlusProche);
-                    }
                 }
-            }
 
-            // Logique existante pour marquer les blocs du dessous (type 2)
-            for (int gx = 0; gx < MAP_WIDTH_TILES; gx++) {
-                int lowestTopY = -1;
-                for (int gy = 0; gy < MAP_HEIGHT_TILES; gy++) {
-                    if (map[gx][gy] == 1) {
-                        lowestTopY = gy;
-                        break;
-                    }
-                }
-
-                if (lowestTopY != -1) {
-                    for (int gy = 0; gy < lowestTopY; gy++) {
-                        if (map[gx][gy] == 0) {
-                            map[gx][gy] = 2;
-                        }
-                    }
+                if (porteLaPlusProche != null) {
+                    plaque.setPorteAssociee(porteLaPlusProche);
                 }
             }
+        }
 
-        } catch (Exception e) {
-            Gdx.app.log("Carte", "Erreur lors du chargement du niveau: " + e.getMessage());
+        // Les positions de départ ; les Creepers se déplacent ensuite dans updateAutomates
+        for (AutomateMortel auto : automates) {
+            mortelsParColonne.insert(auto, auto.getX(), auto.getWidth());
         }
+        for (AutomateNonMortel auto : automatesNonMortels) {
+            nonMortelsParColonne.insert(auto, auto.getX(), auto.getWidth());
+        }
+
+        currentLevelPath = data.levelPath;
+    }
+
+    // Prépare (sans la remplir) la couche de tuiles d'un niveau lu ; à compléter avec buildStep()
+    StaticTileLayer newStaticLayer(LevelData data) {
+        StaticTileLayer layer = new StaticTileLayer();
+        if (isHeadless()) return layer; // rien à dessiner : couche vide, déjà construite
+        layer.begin(data.tiles, data.widthTiles, MAP_HEIGHT_TILES, TILE, blockTop, blockBottom);
+        return layer;
     }
 
     public void dispose() {
         clear();
     }
 
+    // Les automates n'ont rien à libérer : leurs régions appartiennent au GameAtlas
     public void clear() {
-        for (AutomateMortel auto : automates) {
-            auto.dispose();
-        }
         automates.clear();
-        
-        // NOUVEAU : Libération des ressources des automates non mortels
-        for (AutomateNonMortel auto : automatesNonMortels) {
-            auto.dispose();
-        }
         automatesNonMortels.clear();
         portesParId.clear();
         prochainIdPorte = 1;
+        mortelsParColonne.clear();
+        nonMortelsParColonne.clear();
 
-        for (int gx = 0; gx < MAP_WIDTH_TILES; gx++) {
-            for (int gy = 0; gy < MAP_HEIGHT_TILES; gy++) {
-                map[gx][gy] = 0;
-            }
-        }
+        tiles.clear();
+        staticLayer.dispose();
+        mapWidthTiles = MIN_MAP_WIDTH_TILES;
         currentLevelPath = null;
     }
 
-    public void render(SpriteBatch batch, float cameraX) {
-        for (int gx = 0; gx < MAP_WIDTH_TILES; gx++) {
-            for (int gy = 0; gy < MAP_HEIGHT_TILES; gy++) {
-                int tileType = map[gx][gy];
-                if (tileType == 1) {
-                    batch.draw(blockTop, gx * TILE - cameraX, gy * TILE, TILE, TILE);
-                } else if (tileType == 2) {
-                    batch.draw(blockBottom, gx * TILE - cameraX, gy * TILE, TILE, TILE);
-                }
-            }
+    /**
+     * Tuiles visibles dans [cameraX, cameraX + viewportWidth], depuis le SpriteCache :
+     * à appeler hors de tout batch.begin(), avant renderSprites().
+     */
+    public void renderTiles(Matrix4 projection, float cameraX, float viewportWidth) {
+        int firstGX = Math.max(0, (int) Math.floor(cameraX / TILE));
+        int lastGX = Math.min(mapWidthTiles - 1, (int) Math.floor((cameraX + viewportWidth) / TILE));
+        if (firstGX <= lastGX) {
+            // Un appel par colonne de chunks visible, sans renvoyer les tuiles au batch
+            staticLayer.render(projection, cameraX,
+                firstGX >> ChunkedTileStore.CHUNK_SHIFT,
+                lastGX >> ChunkedTileStore.CHUNK_SHIFT);
         }
+    }
 
-        for (AutomateMortel auto : automates) {
-            auto.render(batch, cameraX);
+    /**
+     * Automates visibles dans [cameraX, cameraX + viewportWidth], dans le batch en cours :
+     * tous viennent de l'atlas, sans vidage du batch entre eux.
+     * alpha est la fraction écoulée du tick de simulation en cours, pour les automates mobiles.
+     */
+    public void renderSprites(SpriteBatch batch, float cameraX, float viewportWidth, float alpha) {
+        float viewRight = cameraX + viewportWidth;
+        for (int i = 0; i < automates.size(); i++) {
+            AutomateMortel auto = automates.get(i);
+            if (auto.getX() + auto.getWidth() < cameraX || auto.getX() > viewRight) continue;
+            auto.render(batch, cameraX, alpha);
         }
 
         // NOUVEAU : Rendu des automates non mortels
-        for (AutomateNonMortel auto : automatesNonMortels) {
+        for (int i = 0; i < automatesNonMortels.size(); i++) {
+            AutomateNonMortel auto = automatesNonMortels.get(i);
+            if (auto.getX() + auto.getWidth() < cameraX || auto.getX() > viewRight) continue;
             auto.render(batch, cameraX);
         }
     }
 
-    // Mise à jour des automates et gestion des interactions avec le joueur
+    // Mise à jour des automates et gestion des interactions avec le joueur ; true si le joueur est tué
     public boolean updateAutomates(float delta, Joueur joueur) {
+        stepAutomates(delta);
+        return collide(joueur);
+    }
 
-        for (AutomateMortel auto : automates) {
+    // Fait avancer tous les automates d'un pas, même loin des joueurs
+    public void stepAutomates(float delta) {
+        for (int i = 0; i < automates.size(); i++) {
+            AutomateMortel auto = automates.get(i);
+            float oldX = auto.getX();
             auto.update(delta);
-            if (auto.kill(joueur)) {
+            if (auto.getX() != oldX) {
+                mortelsParColonne.move(auto, oldX, auto.getX());
+            }
+        }
+        for (int i = 0; i < automatesNonMortels.size(); i++) {
+            automatesNonMortels.get(i).update(delta); // Met à jour le timer de la porte
+        }
+    }
 
-                joueur.setDead(true);
-                return true;
+    /**
+     * Client multijoueur : les automates mortels sont placés au temps de la simulation du
+     * serveur (voir GameClient.getAutomateTick) au lieu d'avancer librement ; ils ne
+     * dérivent ni pendant une pause, ni après un chargement plus lent que celui du serveur.
+     * Portes et plaques avancent de delta, comme dans stepAutomates.
+     */
+    public void syncAutomates(double elapsed, float delta) {
+        for (int i = 0; i < automates.size(); i++) {
+            AutomateMortel auto = automates.get(i);
+            float oldX = auto.getX();
+            auto.setElapsed(elapsed);
+            if (auto.getX() != oldX) {
+                mortelsParColonne.move(auto, oldX, auto.getX());
+            }
+        }
+        for (int i = 0; i < automatesNonMortels.size(); i++) {
+            automatesNonMortels.get(i).update(delta);
+        }
+    }
 
+    /**
+     * Interactions d'un joueur avec les automates proches : plaques, portes fermées
+     * (le joueur est repoussé) et automates mortels. Retourne true si le joueur est tué ;
+     * c'est à l'appelant de le marquer mort. Peut être appelée pour plusieurs joueurs
+     * après un seul stepAutomates().
+     */
+    public boolean collide(Joueur joueur) {
+        float joueurLeft = joueur.getX();
+        float joueurRight = joueur.getX() + joueur.getWidth();
+
+        mortelsParColonne.query(joueurLeft, joueurRight, candidatsMortels);
+        for (int i = 0; i < candidatsMortels.size; i++) {
+            if (candidatsMortels.get(i).kill(joueur)) {
+                return true;
             }
         }
 
         // NOUVEAU : Mise à jour des automates non mortels et gestion des interactions
         // On utilise la hitbox du joueur pour les collisions
-        Rectangle joueurHitbox = new Rectangle(joueur.getX(), joueur.getY(), joueur.getWidth(), joueur.getHeight());
+        Rectangle joueurHitbox = joueur.getHitbox();
 
-        for (AutomateNonMortel auto : automatesNonMortels) {
-            auto.update(delta); // Met à jour le timer de la porte
+        nonMortelsParColonne.query(joueurLeft, joueurRight, candidatsNonMortels);
+        for (int i = 0; i < candidatsNonMortels.size; i++) {
+            AutomateNonMortel auto = candidatsNonMortels.get(i);
 
             if (auto instanceof PlaqueDePression) {
                 PlaqueDePression plaque = (PlaqueDePression) auto;
@@ -295,52 +334,69 @@ public class Carte {
                 if (joueurHitbox.overlaps(plaque.getHitbox())) {
                     plaque.activerPorte();
                 }
-            } else if (auto instanceof Porte) {
-                Porte porte = (Porte) auto;
-                // Si la porte est fermée ET que le joueur tente de la traverser
-                if (!porte.estOuverte() && joueurHitbox.overlaps(porte.getHitbox())) {
-                    // Empêche le joueur de traverser la porte fermée
-                    // On doit ajuster la position du joueur pour le "repousser" hors de la porte
-                    // Cette logique est simplifiée et peut être améliorée pour une meilleure gestion des collisions
-                    
-                    // Calcul de la profondeur de pénétration
-                    float overlapX = Math.min(joueurHitbox.x + joueurHitbox.width, porte.getHitbox().x + porte.getHitbox().width) - Math.max(joueurHitbox.x, porte.getHitbox().x);
-                    float overlapY = Math.min(joueurHitbox.y + joueurHitbox.height, porte.getHitbox().y + porte.getHitbox().height) - Math.max(joueurHitbox.y, porte.getHitbox().y);
-
-                    if (overlapX < overlapY) { // Collision horizontale
-                        if (joueurHitbox.x < porte.getHitbox().x) { // Joueur vient de la gauche
-                            joueur.setX(porte.getHitbox().x - joueur.getWidth());
-                        } else { // Joueur vient de la droite
-                            joueur.setX(porte.getHitbox().x + porte.getHitbox().width);
-                        }
-                    } else { // Collision verticale
-                        if (joueurHitbox.y < porte.getHitbox().y) { // Joueur vient du bas
-                            joueur.setY(porte.getHitbox().y - joueur.getHeight());
-                        } else { // Joueur vient du haut
-                            joueur.setY(porte.getHitbox().y + porte.getHitbox().height);
-                        }
+            }
+        }
+
+        // Une porte qui vient de se fermer sur le joueur le repousse aussi
+        pushOutOfClosedDoors(joueur);
+        return false;
+    }
+
+    /**
+     * Repousse le joueur hors des portes fermées qu'il chevauche. Joueur.step l'appelle
+     * après chaque pas : la prédiction, le rejeu des entrées non confirmées et le serveur
+     * butent ainsi sur une porte à chaque entrée, et pas seulement une fois par tick.
+     */
+    public void pushOutOfClosedDoors(Joueur joueur) {
+        Rectangle joueurHitbox = joueur.getHitbox();
+        nonMortelsParColonne.query(joueur.getX(), joueur.getX() + joueur.getWidth(), candidatsNonMortels);
+        for (int i = 0; i < candidatsNonMortels.size; i++) {
+            if (!(candidatsNonMortels.get(i) instanceof Porte)) continue;
+            Porte porte = (Porte) candidatsNonMortels.get(i);
+            // Si la porte est fermée ET que le joueur tente de la traverser
+            if (!porte.estOuverte() && joueurHitbox.overlaps(porte.getHitbox())) {
+                // Empêche le joueur de traverser la porte fermée
+                // On doit ajuster la position du joueur pour le "repousser" hors de la porte
+                // Cette logique est simplifiée et peut être améliorée pour une meilleure gestion des collisions
+                
+                // Calcul de la profondeur de pénétration
+                float overlapX = Math.min(joueurHitbox.x + joueurHitbox.width, porte.getHitbox().x + porte.getHitbox().width) - Math.max(joueurHitbox.x, porte.getHitbox().x);
+                float overlapY = Math.min(joueurHitbox.y + joueurHitbox.height, porte.getHitbox().y + porte.getHitbox().height) - Math.max(joueurHitbox.y, porte.getHitbox().y);
+
+                if (overlapX < overlapY) { // Collision horizontale
+                    if (joueurHitbox.x < porte.getHitbox().x) { // Joueur vient de la gauche
+                        joueur.setX(porte.getHitbox().x - joueur.getWidth());
+                    } else { // Joueur vient de la droite
+                        joueur.setX(porte.getHitbox().x + porte.getHitbox().width);
+                    }
+                } else { // Collision verticale
+                    if (joueurHitbox.y < porte.getHitbox().y) { // Joueur vient du bas
+                        joueur.setY(porte.getHitbox().y - joueur.getHeight());
+                    } else { // Joueur vient du haut
+                        joueur.setY(porte.getHitbox().y + porte.getHitbox().height);
                     }
                 }
             }
         }
-        return false;
     }
 
     public int getTile() { return TILE; }
-    public float getMapWidth() { return MAP_WIDTH_TILES * TILE; }
+    public float getMapWidth() { return mapWidthTiles * TILE; }
+    public int getMapWidthTiles() { return mapWidthTiles; }
+    public int getMapHeightTiles() { return MAP_HEIGHT_TILES; }
     public String getCurrentLevelPath() { return currentLevelPath; }
 
     public boolean isAnyBlockAt(int gridX, int gridY) {
-        if (gridX < 0 || gridX >= MAP_WIDTH_TILES || gridY < 0 || gridY >= MAP_HEIGHT_TILES) {
+        if (gridX < 0 || gridX >= mapWidthTiles || gridY < 0 || gridY >= MAP_HEIGHT_TILES) {
             return true; // Considère l'extérieur de la carte comme un bloc solide pour éviter de tomber
         }
-        return map[gridX][gridY] != 0;
+        return tiles.get(gridX, gridY) != ChunkedTileStore.EMPTY;
     }
 
-    public void applyDoorState(int doorId, boolean open) {
+    public void applyDoorState(int doorId, boolean open, float elapsed) {
         Porte porte = portesParId.get(doorId);
         if (porte != null) {
-            porte.applyNetworkState(open);
+            porte.applyNetworkState(open, elapsed);
         }
     }
 }
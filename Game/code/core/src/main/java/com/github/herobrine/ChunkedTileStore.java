@@ -0,0 +1,104 @@
+package com.github.herobrine;
+
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * Stockage des tuiles de la carte par chunks de 32x32.
+ * Chaque chunk est un tableau de bytes (une case par tuile) rangé dans une
+ * LongMap indexée par les coordonnées du chunk : seuls les chunks contenant
+ * au moins une tuile sont alloués, la largeur du niveau n'est donc plus bornée.
+ */
+public class ChunkedTileStore {
+    public static final int CHUNK_SHIFT = 5;
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT; // 32 tuiles
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    public static final byte EMPTY = 0;
+
+    private final LongMap<byte[]> chunks = new LongMap<>();
+
+    // Dernier chunk consulté : les accès successifs tombent presque toujours dans le même
+    private long lastKey = Long.MIN_VALUE;
+    private byte[] lastChunk = null;
+
+    private int maxGridX = -1;
+    private int maxGridY = -1;
+
+    public static long chunkKey(int chunkX, int chunkY) {
+        return ((long) chunkX << 32) | (chunkY & 0xFFFFFFFFL);
+    }
+
+    public static int chunkXOf(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int chunkYOf(long key) {
+        return (int) key;
+    }
+
+    public byte get(int gx, int gy) {
+        byte[] chunk = findChunk(gx >> CHUNK_SHIFT, gy >> CHUNK_SHIFT);
+        if (chunk == null) return EMPTY;
+        return chunk[((gy & CHUNK_MASK) << CHUNK_SHIFT) | (gx & CHUNK_MASK)];
+    }
+
+    public void set(int gx, int gy, byte type) {
+        int cx = gx >> CHUNK_SHIFT;
+        int cy = gy >> CHUNK_SHIFT;
+        byte[] chunk = findChunk(cx, cy);
+        if (chunk == null) {
+            if (type == EMPTY) return;
+            chunk = new byte[CHUNK_SIZE * CHUNK_SIZE];
+            long key = chunkKey(cx, cy);
+            chunks.put(key, chunk);
+            lastKey = key;
+            lastChunk = chunk;
+        }
+        chunk[((gy & CHUNK_MASK) << CHUNK_SHIFT) | (gx & CHUNK_MASK)] = type;
+        if (type != EMPTY) {
+            if (gx > maxGridX) maxGridX = gx;
+            if (gy > maxGridY) maxGridY = gy;
+        }
+    }
+
+    private byte[] findChunk(int cx, int cy) {
+        long key = chunkKey(cx, cy);
+        if (key == lastKey) return lastChunk;
+        byte[] chunk = chunks.get(key);
+        if (chunk != null) {
+            lastKey = key;
+            lastChunk = chunk;
+        }
+        return chunk;
+    }
+
+    // Retourne le chunk brut (ou null s'il est vide) ; index d'une tuile : (localY << CHUNK_SHIFT) | localX
+    public byte[] getChunk(int chunkX, int chunkY) {
+        return findChunk(chunkX, chunkY);
+    }
+
+    public LongMap.Keys chunkKeys() {
+        return chunks.keys();
+    }
+
+    public int getChunkCount() {
+        return chunks.size;
+    }
+
+    // Plus grande colonne contenant une tuile, -1 si la carte est vide
+    public int getMaxGridX() {
+        return maxGridX;
+    }
+
+    public int getMaxGridY() {
+        return maxGridY;
+    }
+
+    public void clear() {
+        chunks.clear();
+        lastKey = Long.MIN_VALUE;
+        lastChunk = null;
+        maxGridX = -1;
+        maxGridY = -1;
+    }
+}
@@ -8,13 +8,13 @@ import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Rectangle;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.StringTokenizer;
 
 public class CreateMap {
     private final int TILE = 60;
@@ -22,13 +22,13 @@ public class CreateMap {
     
     // CORRIGÉ : Les textures sont maintenant des dépendances
     private final Texture background;
-    private final Texture blockTop;
-    private final Texture blockBottom;
-    private final Texture creeperTex;
-    private final Texture picsTex;
+    private final TextureRegion blockTop;
+    private final TextureRegion blockBottom;
+    private final TextureRegion creeperTex;
+    private final TextureRegion picsTex;
     // NOUVEAU : Textures pour les portes et plaques de pression
-    private final Texture doorTex;
-    private final Texture pressurePlateTex;
+    private final TextureRegion doorTex;
+    private final TextureRegion pressurePlateTex;
     
     private Texture scrollbarBgTex;
     private Texture scrollbarHandleTex;
@@ -95,17 +95,17 @@ public class CreateMap {
     private boolean isDraggingScrollbar = false;
     private final List<Rectangle> toolSlots = new ArrayList<>();
 
-    // CORRIGÉ : Le constructeur reçoit les textures en dépendances, y compris les nouvelles
-    public CreateMap(float extraHeight, Texture background, Texture blockTop, Texture blockBottom, Texture creeperTex, Texture picsTex, Texture doorTex, Texture pressurePlateTex) {
+    // Le fond reste une texture à part ; les sprites viennent de l'atlas partagé avec le jeu
+    public CreateMap(float extraHeight, Texture background, GameAtlas atlas) {
         this.EXTRA_HEIGHT = extraHeight;
         this.background = background;
-        this.blockTop = blockTop;
-        this.blockBottom = blockBottom;
-        this.creeperTex = creeperTex;
-        this.picsTex = picsTex;
+        this.blockTop = atlas.get(GameAtlas.BLOCK_TOP);
+        this.blockBottom = atlas.get(GameAtlas.BLOCK_BOTTOM);
+        this.creeperTex = atlas.get(GameAtlas.CREEPER);
+        this.picsTex = atlas.get(GameAtlas.PICS);
         // NOUVEAU : Initialisation des nouvelles textures
-        this.doorTex = doorTex;
-        this.pressurePlateTex = pressurePlateTex;
+        this.doorTex = atlas.get(GameAtlas.DOOR_CLOSED);
+        this.pressurePlateTex = atlas.get(GameAtlas.PRESSURE_PLATE);
         
         saveMenu = new SaveMenu(EXTRA_HEIGHT);
         shapeRenderer = new ShapeRenderer();
@@ -165,60 +165,33 @@ public class CreateMap {
                 Gdx.app.error("CreateMap", "Impossible de charger le fichier : " + path);
                 return;
             }
-            String[] lines = fh.readString("UTF-8").split("\\r?\\n");
-
-            for (String line : lines) {
-                line = line.trim();
-                if (line.isEmpty() || line.startsWith("#")) continue;
+            // Même lecteur que le jeu ; l'éditeur garde les segments tels qu'écrits dans le fichier
+            TextLevelReader.read(fh, new LevelRecordHandler() {
+                @Override
+                public void onTop(int x1, int y1, int x2, int y2) {
+                    topSegments.add(new int[]{x1, y1, x2, y2});
+                }
 
-                StringTokenizer st = new StringTokenizer(line);
-                if (!st.hasMoreTokens()) continue;
+                @Override
+                public void onCreeper(int startX, int endX, int y) {
+                    creepers.add(new EditorCreeper(startX, endX, y));
+                }
 
-                String type = st.nextToken().toUpperCase();
-                List<Integer> coords = new ArrayList<>();
-                while (st.hasMoreTokens()) {
-                    try { coords.add(Integer.parseInt(st.nextToken())); }
-                    catch (NumberFormatException ignored) {}
+                @Override
+                public void onPics(int x, int y) {
+                    pics.add(new int[]{x, y});
                 }
 
-                if (coords.isEmpty()) continue;
+                @Override
+                public void onDoor(int x, int y) {
+                    doors.add(new int[]{x, y});
+                }
 
-                switch (type) {
-                    case "T":
-                        if (coords.size() >= 4) {
-                            topSegments.add(new int[]{coords.get(0), coords.get(1), coords.get(2), coords.get(3)});
-                        } else if (coords.size() >= 2) {
-                            int x = coords.get(0);
-                            int y = coords.get(1);
-                            topSegments.add(new int[]{x, y, x, y});
-                        }
-                        break;
-                    case "C":
-                        if (coords.size() >= 3) {
-                            int startX = coords.get(0);
-                            int y = coords.get(1);
-                            int endX = (coords.size() >= 4) ? coords.get(2) : startX;
-                            creepers.add(new EditorCreeper(Math.min(startX, endX), Math.max(startX, endX), y));
-                        }
-                        break;
-                    case "P":
-                        if (coords.size() >= 2) {
-                            pics.add(new int[]{coords.get(0), coords.get(1)});
-                        }
-                        break;
-                    // NOUVEAU : Chargement des portes et plaques de pression
-                    case "D":
-                        if (coords.size() >= 2) {
-                            doors.add(new int[]{coords.get(0), coords.get(1)});
-                        }
-                        break;
-                    case "PP":
-                        if (coords.size() >= 2) {
-                            pressurePlates.add(new int[]{coords.get(0), coords.get(1)});
-                        }
-                        break;
+                @Override
+                public void onPressurePlate(int x, int y) {
+                    pressurePlates.add(new int[]{x, y});
                 }
-            }
+            });
         } catch (Exception e) {
             Gdx.app.log("CreateMap", "Erreur lors du chargement du niveau pour modification: " + e.getMessage());
         }
@@ -665,7 +638,7 @@ public class CreateMap {
                 batch.setColor(Color.WHITE);
             }
 
-            Texture icon = null;
+            TextureRegion icon = null;
             float iconWidth = slotRect.width - 8;
             float iconHeight = slotRect.height - 8;
             switch (tools[i]) {
@@ -739,6 +712,8 @@ public class CreateMap {
             FileHandle fh = Gdx.files.local("assets/levels/" + name + ".txt");
             fh.parent().mkdirs();
             fh.writeString(sb.toString(), false, "UTF-8");
+            // Version compilée à côté du texte, lue en priorité par le jeu
+            LevelCompiler.compile(fh, LevelCompiler.compiledFileFor(fh));
         } catch (Exception e) {
             Gdx.app.log("CreateMap", "Erreur save: " + e.getMessage());
         }
@@ -756,27 +731,27 @@ public class CreateMap {
         return background;
     }
 
-    public Texture getBlockTop() {
+    public TextureRegion getBlockTop() {
         return blockTop;
     }
 
-    public Texture getBlockBottom() {
+    public TextureRegion getBlockBottom() {
         return blockBottom;
     }
 
-    public Texture getCreeperTex() {
+    public TextureRegion getCreeperTex() {
         return creeperTex;
     }
 
-    public Texture getPicsTex() {
+    public TextureRegion getPicsTex() {
         return picsTex;
     }
 
-    public Texture getDoorTex() {
+    public TextureRegion getDoorTex() {
         return doorTex;
     }
 
-    public Texture getPressurePlateTex() {
+    public TextureRegion getPressurePlateTex() {
         return pressurePlateTex;
     }
 
@@ -1,35 +1,46 @@
 package com.github.herobrine;
 
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 
 public class Creeper extends AutomateMortel {
-    private final Texture texture;
+    private final TextureRegion texture;
     private final int startGridX, endGridX;
     private final float startX, endX;
     private int direction = 1;
+    private float prevX; // position au tick précédent, pour l'interpolation du rendu
     private final float speed = 80f;
+    // Temps simulé depuis le chargement : la position en découle, sans erreur cumulée aux demi-tours,
+    // si bien que le client retrouve celle du serveur à partir de son seul tick
+    private double elapsed = 0.0;
 
-    public Creeper(int startGridX, int endGridX, int gridY, int tile, Carte carte) {
+    public Creeper(int startGridX, int endGridX, int gridY, int tile, GameAtlas atlas) {
         super(startGridX * tile, (gridY + 1) * tile, 60f, 120f);
-        this.texture = new Texture("creeper.png");
+        this.texture = GameAtlas.regionOrNull(atlas, GameAtlas.CREEPER);
         this.startGridX = startGridX;
         this.endGridX = endGridX;
         this.startX = startGridX * tile;
         this.endX = endGridX * tile;
+        this.prevX = x;
     }
 
     @Override
     public void update(float delta) {
-        x += direction * speed * delta;
-        if (x > endX) {
-            x = endX;
-            direction = -1;
-        }
-        if (x < startX) {
+        setElapsed(elapsed + delta);
+    }
+
+    // Aller-retour à vitesse constante entre startX et endX, en partant de startX vers la droite
+    @Override
+    public void setElapsed(double elapsed) {
+        this.elapsed = elapsed;
+        prevX = x;
+        double span = endX - startX;
+        if (span <= 0) {
             x = startX;
-            direction = 1;
+        } else {
+            double distance = (speed * elapsed) % (2 * span);
+            direction = distance < span ? 1 : -1;
+            x = (float) (direction > 0 ? startX + distance : endX - (distance - span));
         }
         // Mettre à jour la hitbox avec la nouvelle position
         hitbox.setPosition(x, y);
@@ -40,35 +51,17 @@ public class Creeper extends AutomateMortel {
         batch.draw(texture, x - cameraX, y, width, height);
     }
 
+    @Override
+    public void render(SpriteBatch batch, float cameraX, float alpha) {
+        batch.draw(texture, prevX + (x - prevX) * alpha - cameraX, y, width, height);
+    }
+
     /**
      * CORRIGÉ : La logique de hitbox composite est maintenant appliquée ici.
      */
     @Override
     public boolean kill(Joueur joueur) {
-        // Création des rectangles pour la hitbox composite du joueur
-        float feetHeight = joueur.getHeight() / 4;
-        float upperBodyHeight = joueur.getHeight() - feetHeight;
-
-        Rectangle playerFeet = new Rectangle(
-            joueur.getX() + joueur.getFeetOffsetX(),
-            joueur.getY(),
-            joueur.getFeetWidth(),
-            feetHeight
-        );
-
-        Rectangle playerUpperBody = new Rectangle(
-            joueur.getX(),
-            joueur.getY() + feetHeight,
-            joueur.getBodyWidth(),
-            upperBodyHeight
-        );
-
         // On vérifie si la hitbox du Creeper touche l'une ou l'autre partie du corps du joueur
-        return hitbox.overlaps(playerFeet) || hitbox.overlaps(playerUpperBody);
-    }
-
-    @Override
-    public void dispose() {
-        if (texture != null) texture.dispose();
+        return joueur.compositeHitboxOverlaps(hitbox);
     }
 }
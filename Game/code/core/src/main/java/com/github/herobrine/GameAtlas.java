@@ -0,0 +1,88 @@
+package com.github.herobrine;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Atlas des sprites de jeu (blocs, automates, joueur).
+ * L'atlas est généré à la compilation par la tâche Gradle :core:packTextures :
+ * tous les sprites partagent une seule texture, ce qui évite au SpriteBatch
+ * de vider son tampon à chaque changement de texture.
+ * Si l'atlas n'a pas été généré (lancement depuis l'IDE sans Gradle), les
+ * images séparées sont chargées à la place via le TextureRegistry.
+ */
+public class GameAtlas implements Disposable {
+    public static final String ATLAS_PATH = "atlas/game.atlas";
+
+    // Noms des régions : doivent correspondre aux noms produits par packTextures (core/build.gradle)
+    public static final String BLOCK_TOP = "block_top";
+    public static final String BLOCK_BOTTOM = "block_bottom";
+    public static final String CREEPER = "creeper";
+    public static final String PICS = "pics";
+    public static final String DOOR_CLOSED = "door_closed";
+    public static final String DOOR_OPEN = "door_open";
+    public static final String PRESSURE_PLATE = "pressure_plate";
+    public static final String PLAYER = "player";
+
+    private TextureAtlas atlas;
+    private final TextureRegistry fallbackTextures = new TextureRegistry();
+    private final ObjectMap<String, TextureRegion> regions = new ObjectMap<>();
+
+    public GameAtlas() {
+        FileHandle atlasFile = Gdx.files.internal(ATLAS_PATH);
+        if (atlasFile.exists()) {
+            atlas = new TextureAtlas(atlasFile);
+        } else {
+            Gdx.app.error("GameAtlas", "Atlas introuvable (" + ATLAS_PATH + "), lancez :core:packTextures. Textures séparées utilisées.");
+        }
+
+        register(BLOCK_TOP, "Bloc du dessus.png");
+        register(BLOCK_BOTTOM, "Bloc du dessous.png");
+        register(CREEPER, "creeper.png");
+        register(PICS, "Picss.png");
+        register(DOOR_CLOSED, "Porte fermee.png");
+        register(DOOR_OPEN, "Porte ouverte.png");
+        register(PRESSURE_PLATE, "pressure_plate.png");
+        register(PLAYER, "pngegg.png");
+    }
+
+    private void register(String name, String sourcePath) {
+        TextureRegion region = (atlas != null) ? atlas.findRegion(name) : null;
+        if (region == null) {
+            region = new TextureRegion(fallbackTextures.acquire(sourcePath));
+        }
+        regions.put(name, region);
+    }
+
+    public TextureRegion get(String name) {
+        TextureRegion region = regions.get(name);
+        if (region == null) {
+            throw new GdxRuntimeException("Région inconnue dans l'atlas : " + name);
+        }
+        return region;
+    }
+
+    // Région d'un atlas éventuellement absent : la simulation sans rendu (serveur) n'a pas de sprites
+    public static TextureRegion regionOrNull(GameAtlas atlas, String name) {
+        return atlas != null ? atlas.get(name) : null;
+    }
+
+    public boolean isPacked() {
+        return atlas != null;
+    }
+
+    @Override
+    public void dispose() {
+        if (atlas != null) {
+            atlas.dispose();
+            atlas = null;
+        }
+        fallbackTextures.dispose();
+        regions.clear();
+    }
+}
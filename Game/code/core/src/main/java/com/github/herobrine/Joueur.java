@@ -2,47 +2,103 @@ package com.github.herobrine;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.github.herobrine.reseau.PacketPlayer;
-
-import java.util.HashMap;
-import java.util.Map;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Rectangle;
+import com.github.herobrine.reseau.RemotePlayerTable;
 
 public class Joueur {
-    private Texture texture;
+    private TextureRegion texture;
     private float x, y;
+    // Position au tick précédent, pour interpoler le rendu entre deux ticks
+    private float prevX, prevY;
     private float speed = 300f;
     private int id;
-    private final Map<Integer, RemotePlayerState> otherPlayers = new HashMap<>();
+    // Autres joueurs à dessiner, copiés dans une table préallouée à chaque frame
+    private final RemotePlayerTable otherPlayers = new RemotePlayerTable();
 
     // physics
     private float vy = 0f;
     private final float GRAVITY = -1200f;
     private final float JUMP_IMPULSE = 700f;
     private boolean onGround = true;
+    // Appui sur saut vu par captureInput(), consommé par le tick suivant
+    private boolean jumpRequested = false;
 
     private float elapsedTime = 0f;
     private boolean dead = false;
     private static final float MAX_STEP = 1f / 60f; // limiter le timestep pour éviter les grands sauts de physique
 
+    // Entrées d'un tick, en bits : ce que step() consomme à la place du clavier
+    public static final int INPUT_LEFT = 1;
+    public static final int INPUT_RIGHT = 1 << 1;
+    public static final int INPUT_JUMP = 1 << 2;      // saut demandé pendant ce tick
+    public static final int INPUT_JUMP_HELD = 1 << 3; // touche de saut maintenue (saut de hauteur variable)
+
     // Hitbox composite
     private final float playerHeight = 120f;
     private final float bodyWidth = 60f;
     private final float feetWidth = 40f;
     private final float feetOffsetX = (bodyWidth - feetWidth) / 2;
+    private final float feetHeight = playerHeight / 4;
+    // Réutilisée à chaque frame, mise à jour par getHitbox()
+    private final Rectangle hitbox = new Rectangle();
 
     public Joueur(float startX, float startY) {
         this.x = startX;
         this.y = startY;
+        this.prevX = startX;
+        this.prevY = startY;
+    }
+
+    public void create(GameAtlas atlas) {
+        texture = atlas.get(GameAtlas.PLAYER);
+    }
+
+    /**
+     * À appeler une fois par image : les appuis « juste pressés » ne durent qu'une image,
+     * alors qu'une image peut ne contenir aucun tick de simulation, ou plusieurs.
+     */
+    public void captureInput() {
+        if (Gdx.input.isKeyJustPressed(Input.Keys.W) || Gdx.input.isKeyJustPressed(Input.Keys.SPACE)) {
+            jumpRequested = true;
+        }
     }
 
-    public void create() {
-        texture = new Texture("pngegg.png");
+    /**
+     * Entrées du tick à venir, lues au clavier ; consomme le saut mémorisé par captureInput().
+     */
+    public int readInput() {
+        int input = 0;
+        if (Gdx.input.isKeyPressed(Input.Keys.A)) input |= INPUT_LEFT;
+        if (Gdx.input.isKeyPressed(Input.Keys.D)) input |= INPUT_RIGHT;
+        if (jumpRequested) input |= INPUT_JUMP;
+        if (Gdx.input.isKeyPressed(Input.Keys.W) || Gdx.input.isKeyPressed(Input.Keys.SPACE)) input |= INPUT_JUMP_HELD;
+        jumpRequested = false;
+        return input;
     }
 
     public void update(float delta, Carte carte) {
+        update(readInput(), delta, carte);
+    }
+
+    // Un tick avec des entrées données : le serveur l'utilise avec les entrées reçues du client
+    public void update(int input, float delta, Carte carte) {
+        prevX = x;
+        prevY = y;
         elapsedTime += delta;
+        step(input, delta, carte);
+    }
+
+    /**
+     * Déplacement seul, fonction de l'état de mouvement (x, y, vy, onGround), des entrées
+     * et de la carte : ni clavier, ni horloge. Rejouer les mêmes entrées depuis le même
+     * état donne la même position, ce qui permet au client de prédire puis de rejouer ses
+     * entrées non confirmées quand le serveur corrige sa position. Les portes fermées
+     * comptent comme des tuiles : ce qu'en sait le client peut différer du serveur jusqu'à
+     * la prochaine correction, mais chaque entrée, prédite, rejouée ou simulée, y bute.
+     */
+    public void step(int input, float delta, Carte carte) {
         // Gérer les grands delta times en les divisant en plusieurs petites étapes pour qu'il n'y ait pas de "téléportation" à travers les murs
         int steps = Math.max(1, (int) Math.ceil(delta / MAX_STEP));
         float step = delta / steps;
@@ -50,8 +106,8 @@ public class Joueur {
         for (int i = 0; i < steps; i++) {
             // --- 1. Mouvement Horizontal ---
             float dx = 0f;
-            if (Gdx.input.isKeyPressed(Input.Keys.D)) dx += speed * step;
-            if (Gdx.input.isKeyPressed(Input.Keys.A)) dx -= speed * step;
+            if ((input & INPUT_RIGHT) != 0) dx += speed * step;
+            if ((input & INPUT_LEFT) != 0) dx -= speed * step;
 
             x += dx;
             int tile = carte.getTile();
@@ -79,7 +135,7 @@ public class Joueur {
             // --- 2. Mouvement Vertical ---
             
             // Déclenchement du saut (inchangé)
-            if ((Gdx.input.isKeyJustPressed(Input.Keys.W) || Gdx.input.isKeyJustPressed(Input.Keys.SPACE)) && onGround) {
+            if ((input & INPUT_JUMP) != 0 && onGround) {
                 vy = JUMP_IMPULSE;
                 onGround = false;
             }
@@ -89,7 +145,7 @@ public class Joueur {
 
             // NOUVEAU : GESTION DU SAUT DE HAUTEUR VARIABLE
             // Si le joueur relâche la touche de saut alors qu'il est encore en train de monter...
-            boolean jumpKeyReleased = !Gdx.input.isKeyPressed(Input.Keys.W) && !Gdx.input.isKeyPressed(Input.Keys.SPACE);
+            boolean jumpKeyReleased = (input & INPUT_JUMP_HELD) == 0;
             if (jumpKeyReleased && vy > 0) {
                 // ...on "coupe" son ascension en réduisant sa vitesse verticale.
                 // Multiplier par une valeur inférieure à 1 (ex: 0.5f) donne un effet plus doux.
@@ -135,9 +191,20 @@ public class Joueur {
             if (x < 0) x = 0;
             float mapW = carte.getMapWidth();
             if (x + bodyWidth > mapW) x = mapW - bodyWidth;
+
+            // --- 3. Portes fermées, à chaque pas comme les tuiles ---
+            carte.pushOutOfClosedDoors(this);
         }
     }
 
+    // Recale l'état de mouvement sur celui du serveur, avant de rejouer les entrées non confirmées
+    public void setMovementState(float x, float y, float vy, boolean onGround) {
+        this.x = x;
+        this.y = y;
+        this.vy = vy;
+        this.onGround = onGround;
+    }
+
     public void setX(float x) {
         this.x = x;
     }
@@ -147,55 +214,68 @@ public class Joueur {
     }
     
     public void render(SpriteBatch batch, float cameraX) {
-        batch.draw(texture, x - cameraX, y, bodyWidth, playerHeight);
-        for (RemotePlayerState remote : otherPlayers.values()) {
-            if (remote.dead) continue;
-            batch.draw(texture, remote.x - cameraX, remote.y, bodyWidth, playerHeight);
+        render(batch, cameraX, 1f);
+    }
+
+    // alpha : fraction écoulée du tick en cours (0 = position du tick précédent, 1 = position actuelle)
+    public void render(SpriteBatch batch, float cameraX, float alpha) {
+        batch.draw(texture, getRenderX(alpha) - cameraX, getRenderY(alpha), bodyWidth, playerHeight);
+        for (int i = 0; i < otherPlayers.count; i++) {
+            if (otherPlayers.dead[i]) continue;
+            batch.draw(texture, otherPlayers.x[i] - cameraX, otherPlayers.y[i], bodyWidth, playerHeight);
         }
     }
 
     public void dispose() {
-        if (texture != null) texture.dispose();
+        // La région du joueur appartient au GameAtlas
+        texture = null;
     }
 
     // Getters (inchangés)
     public float getVy() { return vy; }
+    public boolean isOnGround() { return onGround; }
     public float getY() { return y; }
     public float getX() { return x; }
+    public float getRenderX(float alpha) { return prevX + (x - prevX) * alpha; }
+    public float getRenderY(float alpha) { return prevY + (y - prevY) * alpha; }
     public float getWidth() { return bodyWidth; }
     public float getHeight() { return playerHeight; }
     public float getElapsedTime() { return elapsedTime; }
     public float getBodyWidth() { return bodyWidth; }
     public float getFeetWidth() { return feetWidth; }
     public float getFeetOffsetX() { return feetOffsetX; }
-    public boolean isDead() { return dead; }
-    public void setDead(boolean dead) { this.dead = dead; }
 
-    public void updateRemotePlayers(Map<Integer, PacketPlayer> remoteStates) {
-        otherPlayers.clear();
-        if (remoteStates == null) return;
-        for (PacketPlayer pkt : remoteStates.values()) {
-            if (pkt == null) continue;
-            RemotePlayerState state = new RemotePlayerState();
-            state.id = pkt.id;
-            state.x = pkt.x;
-            state.y = pkt.y;
-            state.dead = pkt.dead;
-            otherPlayers.put(state.id, state);
-        }
+    // Boîte englobante du joueur ; toujours la même instance, à ne pas conserver d'une frame à l'autre
+    public Rectangle getHitbox() {
+        return hitbox.set(x, y, bodyWidth, playerHeight);
     }
 
-    public boolean isAnyRemoteDead() {
-        for (RemotePlayerState state : otherPlayers.values()) {
-            if (state.dead) return true;
+    /**
+     * Vrai si r touche la hitbox composite du joueur : les pieds (plus étroits,
+     * quart inférieur) ou le haut du corps (pleine largeur, le reste de la hauteur).
+     * Calcul direct sur les coordonnées, sans créer de rectangle.
+     */
+    public boolean compositeHitboxOverlaps(Rectangle r) {
+        float rRight = r.x + r.width;
+        float rTop = r.y + r.height;
+
+        float feetLeft = x + feetOffsetX;
+        float feetTop = y + feetHeight;
+        if (r.x < feetLeft + feetWidth && rRight > feetLeft && r.y < feetTop && rTop > y) {
+            return true;
         }
-        return false;
+        return r.x < x + bodyWidth && rRight > x && r.y < y + playerHeight && rTop > feetTop;
     }
 
-    private static class RemotePlayerState {
-        int id;
-        float x;
-        float y;
-        boolean dead;
+    public boolean isDead() { return dead; }
+    public void setDead(boolean dead) { this.dead = dead; }
+
+    // null : aucun autre joueur (solo, ou client déconnecté)
+    public void updateRemotePlayers(RemotePlayerTable remoteStates) {
+        if (remoteStates == null) {
+            otherPlayers.clear();
+            return;
+        }
+        otherPlayers.copyFrom(remoteStates);
     }
 }
@@ -0,0 +1,63 @@
+package com.github.herobrine;
+
+import com.badlogic.gdx.files.FileHandle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Conversion des niveaux texte (.txt) vers le format binaire (.hbl).
+ * Le fichier compilé est rangé à côté du fichier texte ; le jeu le préfère
+ * tant qu'il est au moins aussi récent que sa source.
+ *
+ * En ligne de commande (tâche Gradle :core:compileLevels) :
+ *   LevelCompiler [dossier]   compile tous les .txt du dossier (assets/levels par défaut)
+ */
+public final class LevelCompiler {
+
+    private LevelCompiler() {
+    }
+
+    public static FileHandle compiledFileFor(FileHandle source) {
+        return source.sibling(source.nameWithoutExtension() + "." + BinaryLevelFormat.EXTENSION);
+    }
+
+    // Vrai si le fichier compilé existe et n'est pas plus ancien que sa source
+    public static boolean isUpToDate(FileHandle source, FileHandle compiled) {
+        if (!compiled.exists()) return false;
+        return !source.exists() || compiled.lastModified() >= source.lastModified();
+    }
+
+    public static void compile(FileHandle source, FileHandle target) throws IOException {
+        LevelData data = new LevelData(source.path());
+        TextLevelReader.read(source, data);
+        data.finish();
+        try (OutputStream out = target.write(false)) {
+            BinaryLevelFormat.write(data, out);
+        }
+    }
+
+    public static void main(String[] args) {
+        File dir = new File(args.length > 0 ? args[0] : "assets/levels");
+        File[] sources = dir.listFiles((d, name) -> name.endsWith(".txt"));
+        if (sources == null) {
+            System.err.println("Dossier introuvable : " + dir.getAbsolutePath());
+            System.exit(1);
+            return;
+        }
+        int failures = 0;
+        for (File file : sources) {
+            FileHandle source = new FileHandle(file);
+            FileHandle target = compiledFileFor(source);
+            try {
+                compile(source, target);
+                System.out.println(source.name() + " -> " + target.name() + " (" + target.length() + " octets)");
+            } catch (IOException | RuntimeException e) {
+                failures++;
+                System.err.println("Échec de la compilation de " + source.name() + " : " + e.getMessage());
+            }
+        }
+        if (failures > 0) System.exit(1);
+    }
+}
@@ -0,0 +1,147 @@
+package com.github.herobrine;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Contenu d'un niveau une fois lu : tuiles et positions des automates.
+ * Ne touche à aucune ressource OpenGL, peut donc être produit sur un thread
+ * de chargement puis installé dans la Carte par le thread de rendu.
+ */
+public class LevelData implements LevelRecordHandler {
+    final String levelPath;
+    final ChunkedTileStore tiles = new ChunkedTileStore();
+    int widthTiles = Carte.MIN_MAP_WIDTH_TILES;
+    private boolean truncated = false;
+
+    // Positions en tuiles, comme dans le fichier de niveau
+    final List<int[]> creepers = new ArrayList<>();       // {startX, endX, y}
+    final List<int[]> pics = new ArrayList<>();           // {x, y}
+    final List<int[]> doors = new ArrayList<>();          // {x, y}
+    final List<int[]> pressurePlates = new ArrayList<>(); // {x, y}
+
+    LevelData(String levelPath) {
+        this.levelPath = levelPath;
+    }
+
+    /**
+     * Lecture d'un niveau ; retourne un niveau vide si le fichier est absent ou illisible.
+     * Si une version compilée (.hbl) à jour existe à côté du fichier texte, elle est
+     * lue à la place ; illisible, elle cède la place au fichier texte. Elle est lue d'un
+     * bloc, sans projection mémoire qui la garderait verrouillée (Windows) : l'éditeur
+     * peut la recompiler à la sauvegarde.
+     */
+    public static LevelData parse(String levelPath) {
+        LevelData data = new LevelData(levelPath);
+        try {
+            FileHandle fh = Gdx.files.local(levelPath);
+            FileHandle compiled = BinaryLevelFormat.EXTENSION.equals(fh.extension()) ? fh : LevelCompiler.compiledFileFor(fh);
+            if (LevelCompiler.isUpToDate(fh, compiled)) {
+                try {
+                    BinaryLevelFormat.read(ByteBuffer.wrap(compiled.readBytes()), data);
+                    data.finish();
+                    return data;
+                } catch (IOException | RuntimeException e) {
+                    Gdx.app.log("Carte", "Niveau compilé illisible (" + compiled.name() + "), lecture du texte : " + e.getMessage());
+                    data = new LevelData(levelPath); // rien de la lecture ratée ne doit rester
+                }
+            }
+            if (fh != compiled && fh.exists()) {
+                TextLevelReader.read(fh, data);
+            } else {
+                Gdx.app.error("Carte", "Impossible de charger le fichier : " + levelPath);
+                return data;
+            }
+        } catch (Exception e) {
+            Gdx.app.log("Carte", "Erreur lors du chargement du niveau: " + e.getMessage());
+        }
+        data.finish();
+        return data;
+    }
+
+    @Override
+    public void onTop(int x1, int y1, int x2, int y2) {
+        fillTop(x1, y1, x2, y2);
+    }
+
+    @Override
+    public void onCreeper(int startX, int endX, int y) {
+        creepers.add(new int[]{startX, endX, y});
+    }
+
+    @Override
+    public void onPics(int x, int y) {
+        pics.add(new int[]{x, y});
+    }
+
+    @Override
+    public void onDoor(int x, int y) {
+        doors.add(new int[]{x, y});
+    }
+
+    @Override
+    public void onPressurePlate(int x, int y) {
+        pressurePlates.add(new int[]{x, y});
+    }
+
+    private void fillTop(int ax, int ay, int bx, int by) {
+        int x1 = Math.min(ax, bx);
+        int x2 = Math.max(ax, bx);
+        int y1 = Math.min(ay, by);
+        int y2 = Math.max(ay, by);
+        if (x2 >= Carte.MAX_MAP_WIDTH_TILES) {
+            if (!truncated) {
+                truncated = true;
+                Gdx.app.log("Carte", "Niveau " + levelPath + " tronqué à " + Carte.MAX_MAP_WIDTH_TILES
+                        + " colonnes (tuiles jusqu'à la colonne " + x2 + ")");
+            }
+            x2 = Carte.MAX_MAP_WIDTH_TILES - 1;
+        }
+        x1 = Math.max(0, x1);
+        y1 = Math.max(0, y1);
+        y2 = Math.min(Carte.MAP_HEIGHT_TILES - 1, y2);
+        for (int gx = x1; gx <= x2; gx++) {
+            for (int gy = y1; gy <= y2; gy++) {
+                tiles.set(gx, gy, Carte.TILE_TOP);
+            }
+        }
+    }
+
+    // Calcul de la largeur et des blocs du dessous, une fois toutes les tuiles posées
+    void finish() {
+        // La largeur du niveau suit la colonne la plus à droite (64 colonnes minimum)
+        widthTiles = Math.max(Carte.MIN_MAP_WIDTH_TILES, tiles.getMaxGridX() + 1);
+
+        // Logique existante pour marquer les blocs du dessous (type 2)
+        for (int gx = 0; gx < widthTiles; gx++) {
+            int lowestTopY = -1;
+            for (int gy = 0; gy < Carte.MAP_HEIGHT_TILES; gy++) {
+                if (tiles.get(gx, gy) == Carte.TILE_TOP) {
+                    lowestTopY = gy;
+                    break;
+                }
+            }
+
+            if (lowestTopY != -1) {
+                for (int gy = 0; gy < lowestTopY; gy++) {
+                    if (tiles.get(gx, gy) == ChunkedTileStore.EMPTY) {
+                        tiles.set(gx, gy, Carte.TILE_BOTTOM);
+                    }
+                }
+            }
+        }
+    }
+
+    public String getLevelPath() {
+        return levelPath;
+    }
+
+    public int getWidthTiles() {
+        return widthTiles;
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.herobrine;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.Disposable;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Chargement d'un niveau en arrière-plan.
+ * 1. lecture et analyse du fichier sur un thread dédié (LevelData) ;
+ * 2. construction de la couche de tuiles sur le thread de rendu, quelques
+ *    colonnes de chunks par frame ;
+ * 3. installation dans la Carte en une seule frame, une fois tout prêt.
+ * Le niveau courant reste intact et affichable jusqu'à l'étape 3.
+ */
+public class LevelLoader implements Disposable {
+    private static final int CHUNK_COLUMNS_PER_FRAME = 4;
+
+    private final Carte carte;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "LevelLoader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private String loadingPath = null;
+    private Future<LevelData> pendingParse = null;
+    private LevelData parsed = null;
+    private StaticTileLayer building = null;
+
+    public LevelLoader(Carte carte) {
+        this.carte = carte;
+    }
+
+    // Lance le chargement ; un chargement déjà en cours est abandonné
+    public void load(String levelPath) {
+        cancel();
+        loadingPath = levelPath;
+        pendingParse = executor.submit(() -> LevelData.parse(levelPath));
+    }
+
+    /**
+     * Fait avancer le chargement, à appeler une fois par frame sur le thread de rendu.
+     * Retourne true à la frame où le nouveau niveau vient d'être installé dans la Carte.
+     */
+    public boolean update() {
+        if (pendingParse != null) {
+            if (!pendingParse.isDone()) return false;
+            try {
+                parsed = pendingParse.get();
+            } catch (InterruptedException | ExecutionException e) {
+                Gdx.app.error("LevelLoader", "Erreur lors du chargement du niveau " + loadingPath, e);
+                parsed = new LevelData(loadingPath);
+            }
+            pendingParse = null;
+            building = carte.newStaticLayer(parsed);
+            return false;
+        }
+
+        if (building != null) {
+            if (!building.buildStep(CHUNK_COLUMNS_PER_FRAME)) return false;
+            carte.apply(parsed, building);
+            parsed = null;
+            building = null;
+            loadingPath = null;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean isLoading() {
+        return pendingParse != null || building != null;
+    }
+
+    public String getLoadingPath() {
+        return loadingPath;
+    }
+
+    public void cancel() {
+        if (pendingParse != null) {
+            pendingParse.cancel(true);
+            pendingParse = null;
+        }
+        if (building != null) {
+            building.dispose();
+            building = null;
+        }
+        parsed = null;
+        loadingPath = null;
+    }
+
+    @Override
+    public void dispose() {
+        cancel();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,165 @@
+package com.github.herobrine;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringTokenizer;
+
+/**
+ * Mesure du temps de lecture et des allocations du lecteur de niveaux texte,
+ * comparé à l'ancienne lecture (split en lignes + StringTokenizer + entiers boxés).
+ *
+ * En ligne de commande (tâche Gradle :core:benchmarkLevelParser) :
+ *   LevelParserBenchmark [lignes...]   tailles de niveaux générés (10000 50000 200000 par défaut)
+ */
+public final class LevelParserBenchmark {
+    private static final int WARMUP_RUNS = 20;
+    private static final int MEASURED_RUNS = 20;
+
+    private LevelParserBenchmark() {
+    }
+
+    // Compte les entrées sans rien stocker, pour ne mesurer que la lecture
+    private static final class CountingHandler implements LevelRecordHandler {
+        long records, checksum;
+
+        @Override
+        public void onTop(int x1, int y1, int x2, int y2) {
+            records++;
+            checksum += x1 + y1 + x2 + y2;
+        }
+
+        @Override
+        public void onCreeper(int startX, int endX, int y) {
+            records++;
+            checksum += startX + endX + y;
+        }
+
+        @Override
+        public void onPics(int x, int y) {
+            records++;
+            checksum += x + y;
+        }
+
+        @Override
+        public void onDoor(int x, int y) {
+            records++;
+            checksum += x + y;
+        }
+
+        @Override
+        public void onPressurePlate(int x, int y) {
+            records++;
+            checksum += x + y;
+        }
+    }
+
+    private interface Parser {
+        void parse(byte[] data, LevelRecordHandler handler);
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0 ? new int[args.length] : new int[]{10_000, 50_000, 200_000};
+        for (int i = 0; i < args.length; i++) sizes[i] = Integer.parseInt(args[i]);
+
+        for (int lines : sizes) {
+            byte[] level = generateLevel(lines);
+            System.out.println(lines + " lignes (" + level.length / 1024 + " Ko)");
+            checkSameRecords(level);
+            run("  flux     ", level, (data, h) -> TextLevelReader.read(data, 0, data.length, h));
+            run("  ancienne ", level, LevelParserBenchmark::legacyRead);
+        }
+    }
+
+    // Les deux lectures doivent produire exactement les mêmes entrées
+    private static void checkSameRecords(byte[] level) {
+        CountingHandler streaming = new CountingHandler();
+        CountingHandler legacy = new CountingHandler();
+        TextLevelReader.read(level, 0, level.length, streaming);
+        legacyRead(level, legacy);
+        if (streaming.records != legacy.records || streaming.checksum != legacy.checksum) {
+            throw new IllegalStateException("Les lectures divergent : " + streaming.records + " / " + legacy.records + " entrées");
+        }
+    }
+
+    private static void run(String label, byte[] level, Parser parser) {
+        CountingHandler handler = new CountingHandler();
+        for (int i = 0; i < WARMUP_RUNS; i++) parser.parse(level, handler);
+
+        long startBytes = AllocationMeter.currentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_RUNS; i++) parser.parse(level, handler);
+        long elapsed = System.nanoTime() - start;
+        long allocated = AllocationMeter.currentThreadAllocatedBytes() - startBytes;
+
+        System.out.printf("%s %8.3f ms/lecture %12d octets alloués/lecture  (%d entrées)%n",
+            label, elapsed / 1e6 / MEASURED_RUNS, AllocationMeter.isSupported() ? allocated / MEASURED_RUNS : -1,
+            handler.records / (WARMUP_RUNS + MEASURED_RUNS));
+    }
+
+    // Niveau synthétique : un mélange des entrées d'un niveau réel, sur une grande largeur
+    private static byte[] generateLevel(int lines) {
+        StringBuilder sb = new StringBuilder(lines * 12);
+        sb.append("# niveau genere par LevelParserBenchmark\n");
+        for (int i = 0; i < lines; i++) {
+            int x = i * 3;
+            switch (i % 8) {
+                case 0: sb.append("T ").append(x).append(" 0 ").append(x + 2).append(" 2\n"); break;
+                case 1: sb.append("T ").append(x).append(" 5\n"); break;
+                case 2: sb.append("C ").append(x).append(" 3 ").append(x + 4).append(" 3\n"); break;
+                case 3: sb.append("P ").append(x).append(" 3\n"); break;
+                case 4: sb.append("D ").append(x).append(" 3\n"); break;
+                case 5: sb.append("PP ").append(x).append(" 3\n"); break;
+                case 6: sb.append("\n"); break;
+                default: sb.append("T ").append(x).append(' ').append(i % 17).append("\r\n"); break;
+            }
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Lecture telle qu'elle était faite avant le lecteur en flux, gardée comme référence
+    private static void legacyRead(byte[] data, LevelRecordHandler handler) {
+        String[] lines = new String(data, StandardCharsets.UTF_8).split("\\r?\\n");
+        for (String line : lines) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            StringTokenizer st = new StringTokenizer(line);
+            if (!st.hasMoreTokens()) continue;
+
+            String type = st.nextToken().toUpperCase();
+            List<Integer> coords = new ArrayList<>();
+            while (st.hasMoreTokens()) {
+                try { coords.add(Integer.parseInt(st.nextToken())); }
+                catch (NumberFormatException ignored) {}
+            }
+            if (coords.isEmpty()) continue;
+
+            switch (type) {
+                case "T":
+                    if (coords.size() >= 4) {
+                        handler.onTop(coords.get(0), coords.get(1), coords.get(2), coords.get(3));
+                    } else if (coords.size() >= 2) {
+                        handler.onTop(coords.get(0), coords.get(1), coords.get(0), coords.get(1));
+                    }
+                    break;
+                case "C":
+                    if (coords.size() >= 3) {
+                        int startX = coords.get(0);
+                        int endX = (coords.size() >= 4) ? coords.get(2) : startX;
+                        handler.onCreeper(Math.min(startX, endX), Math.max(startX, endX), coords.get(1));
+                    }
+                    break;
+                case "P":
+                    if (coords.size() >= 2) handler.onPics(coords.get(0), coords.get(1));
+                    break;
+                case "D":
+                    if (coords.size() >= 2) handler.onDoor(coords.get(0), coords.get(1));
+                    break;
+                case "PP":
+                    if (coords.size() >= 2) handler.onPressurePlate(coords.get(0), coords.get(1));
+                    break;
+            }
+        }
+    }
+}
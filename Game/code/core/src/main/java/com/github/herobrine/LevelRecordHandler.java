@@ -0,0 +1,24 @@
+package com.github.herobrine;
+
+/**
+ * Reçoit les éléments d'un niveau au fur et à mesure de sa lecture.
+ * Les coordonnées sont en tuiles, comme dans les fichiers de niveau.
+ * Implémentée par LevelData (jeu) et par CreateMap (éditeur), qui partagent
+ * ainsi les mêmes lecteurs de fichiers.
+ */
+public interface LevelRecordHandler {
+    // T : rectangle de blocs du dessus entre (x1, y1) et (x2, y2), bornes incluses
+    void onTop(int x1, int y1, int x2, int y2);
+
+    // C : creeper patrouillant entre startX et endX (startX <= endX) sur la ligne y
+    void onCreeper(int startX, int endX, int y);
+
+    // P : pics
+    void onPics(int x, int y);
+
+    // D : porte
+    void onDoor(int x, int y);
+
+    // PP : plaque de pression
+    void onPressurePlate(int x, int y);
+}
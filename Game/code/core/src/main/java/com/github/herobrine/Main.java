@@ -12,11 +12,8 @@ import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.github.herobrine.reseau.GameClient;
 import com.github.herobrine.reseau.GameServer;
-import com.github.herobrine.reseau.PacketDoorState;
-import com.github.herobrine.reseau.PacketGameOver;
-import com.github.herobrine.reseau.PacketStartGame;
-import com.github.herobrine.reseau.PacketRestartRequest;
-import com.github.herobrine.reseau.PacketReturnToMenu;
+import com.github.herobrine.reseau.NetworkEvent;
+import com.github.herobrine.reseau.ServerWorld;
 import java.io.IOException;
 
 public class Main extends ApplicationAdapter {
@@ -25,12 +22,14 @@ public class Main extends ApplicationAdapter {
     private BitmapFont font;
     private Skin uiSkin;
 
-    // Textures
-    private Texture background, blockTop, blockBottom, creeperTex, picsTex, doorTex, pressurePlateTex;;
+    // Textures : le fond reste à part, tous les sprites de jeu sont dans l'atlas
+    private Texture background;
+    private GameAtlas atlas;
 
     // Objets du jeu
     private Carte carte;
     private Joueur joueur;
+    private LevelLoader levelLoader;
 
     // Écrans et Menus
     private GameLaunchMenuScreen launchMenu;
@@ -45,7 +44,11 @@ public class Main extends ApplicationAdapter {
     // Réseau
     private GameServer gameServer;
     private GameClient gameClient;
+    // Créé une fois : drainEvents est appelé à chaque frame
+    private final NetworkEvent.Handler networkEventHandler = this::handleNetworkEvent;
     private String remoteHost = "127.0.0.1";
+    // Salle du serveur rejointe par ce client (un serveur héberge plusieurs parties)
+    private String roomName = GameServer.DEFAULT_ROOM;
 
     private static final String DEFAULT_REMOTE_HOST = "127.0.0.1" ;
 
@@ -62,6 +65,33 @@ public class Main extends ApplicationAdapter {
     private long returnToMenuRequestTimeMs = 0L;
     private static final long RETURN_TO_MENU_TIMEOUT_MS = 1500L;
 
+    // Statistiques de rendu (F3) : nombre de vidages du SpriteBatch sur la dernière frame
+    private boolean showRenderStats = false;
+    private int lastFrameBatchFlushes = 0;
+    // Octets alloués par la mise à jour du jeu pendant la dernière frame (0 attendu en régime établi)
+    private long lastFrameUpdateAllocatedBytes = 0L;
+
+    // Simulation à pas fixe : le jeu avance par ticks de simulationStep secondes,
+    // indépendamment du nombre d'images affichées ; le rendu interpole entre deux ticks
+    public static final int DEFAULT_SIMULATION_HZ = 60;
+    private static final float MAX_FRAME_DELTA = 0.25f; // borne le rattrapage après un gel de la fenêtre
+    // En multijoueur, le pas est celui du serveur : chaque tick y produit une entrée qu'il rejoue
+    private final float localSimulationStep;
+    private float simulationStep;
+    private float simulationAccumulator = 0f;
+
+    public Main() {
+        this(DEFAULT_SIMULATION_HZ);
+    }
+
+    public Main(int simulationHz) {
+        if (simulationHz <= 0) {
+            throw new IllegalArgumentException("Fréquence de simulation invalide : " + simulationHz);
+        }
+        this.localSimulationStep = 1f / simulationHz;
+        this.simulationStep = localSimulationStep;
+    }
+
     @Override
     public void create() {
         batch = new SpriteBatch();
@@ -70,17 +100,12 @@ public class Main extends ApplicationAdapter {
 
         // Chargement des textures
         background = new Texture("Fond_simple.png");
-        blockTop = new Texture("Bloc du dessus.png");
-        blockBottom = new Texture("Bloc du dessous.png");
-        creeperTex = new Texture("creeper.png");
-        picsTex = new Texture("Picss.png");
-        doorTex = new Texture("Porte fermee.png");
-        pressurePlateTex = new Texture("pressure_plate.png");
+        atlas = new GameAtlas();
 
         uiSkin = UIFactory.createSkin(font);
-        carte = new Carte(blockTop, blockBottom);
-        Porte.setDoorStateNotifier(this::handleLocalDoorStateChange);
-        createMap = new CreateMap(BACKGROUND_EXTRA_HEIGHT, background, blockTop, blockBottom, creeperTex, picsTex, doorTex, pressurePlateTex);
+        carte = new Carte(atlas);
+        levelLoader = new LevelLoader(carte);
+        createMap = new CreateMap(BACKGROUND_EXTRA_HEIGHT, background, atlas);
     
 
 
@@ -177,7 +202,7 @@ public class Main extends ApplicationAdapter {
         if (waitingReturnToMenu) return;
         if (multiplayerSessionActive) {
             if (gameServer != null) {
-                gameServer.broadcastReturnToMenu("Retour au menu principal");
+                gameServer.broadcastReturnToMenu(roomName, "Retour au menu principal");
             } else if (gameClient != null && gameClient.connected) {
                 gameClient.sendReturnToMenu("Retour au menu principal");
             }
@@ -210,7 +235,7 @@ public class Main extends ApplicationAdapter {
             }
             // Host relance la partie via le serveur pour synchroniser tous les clients.
             if (gameServer != null) {
-                gameServer.restartGame(currentLevel);
+                gameServer.restartGame(roomName, currentLevel);
             }
             gameOverMenu.deactivate();
             return;
@@ -226,16 +251,22 @@ public class Main extends ApplicationAdapter {
         gameOverMenu.activate();
     }
 
+    // Le niveau est lu en arrière-plan ; la partie démarre dans onLevelLoaded()
     private void initGame(String levelPath) {
-        carte.create(levelPath);
+        levelLoader.load(levelPath);
+        if (pauseMenu.isActive()) pauseMenu.deactivate();
+        if (gameOverMenu.isActive()) gameOverMenu.deactivate();
+    }
+
+    // Appelé à la frame où le LevelLoader a installé le nouveau niveau dans la carte
+    private void onLevelLoaded() {
         if (joueur != null) joueur.dispose();
-        
+
         joueur = new Joueur(carte.getTile() * 5, carte.getGroundYAtGridX(5));
-        joueur.create();
+        joueur.create(atlas);
         joueur.setDead(false);
         cameraX = 0f;
-        if (pauseMenu.isActive()) pauseMenu.deactivate();
-        if (gameOverMenu.isActive()) gameOverMenu.deactivate();
+        simulationAccumulator = 0f;
     }
 
     private void goToLaunchMenu() {
@@ -243,6 +274,7 @@ public class Main extends ApplicationAdapter {
             joueur.dispose();
             joueur = null;
         }
+        levelLoader.cancel();
         carte.clear();
         
         launchMenu.deactivate();
@@ -268,20 +300,50 @@ public class Main extends ApplicationAdapter {
 
         processNetworkEvents();
         checkReturnToMenuTimeout();
+        if (levelLoader.update()) {
+            onLevelLoaded();
+        }
 
         if (!isGameBlocked()) {
-            updateGame(delta);
+            joueur.captureInput();
+            simulationAccumulator += Math.min(delta, MAX_FRAME_DELTA);
+            long allocatedBefore = AllocationMeter.currentThreadAllocatedBytes();
+            // Autant de ticks que le temps écoulé en contient ; une fin de partie arrête la boucle
+            while (simulationAccumulator >= simulationStep && !isGameBlocked()) {
+                updateGame(simulationStep);
+                simulationAccumulator -= simulationStep;
+            }
+            lastFrameUpdateAllocatedBytes = AllocationMeter.currentThreadAllocatedBytes() - allocatedBefore;
         }
         handleGlobalInput();
 
+        // Fraction du tick suivant déjà écoulée, pour placer joueur et Creepers entre deux ticks
+        float alpha = Math.min(1f, simulationAccumulator / simulationStep);
+        updateCamera(alpha);
+        updateRemotePlayersForRender();
+
+        // renderCalls est remis à zéro à chaque begin() : on mesure via le compteur cumulé.
+        // En jeu, trois vidages : le fond (texture à part), les sprites de l'atlas, le texte
+        // (texture de la police) ; les tuiles passent par leur SpriteCache, entre les deux batchs.
+        int flushesBefore = batch.totalRenderCalls;
         batch.begin();
         drawBackground(); // MÉTHODE RÉINTÉGRÉE
+        batch.end();
         if (joueur != null) {
-            carte.render(batch, cameraX);
-            joueur.render(batch, cameraX);
+            carte.renderTiles(batch.getProjectionMatrix(), cameraX, Gdx.graphics.getWidth());
+        }
+        batch.begin();
+        if (joueur != null) {
+            carte.renderSprites(batch, cameraX, Gdx.graphics.getWidth(), alpha);
+            joueur.render(batch, cameraX, alpha);
             renderHUD(); // MÉTHODE RÉINTÉGRÉE
         }
+        if (levelLoader.isLoading()) {
+            font.setColor(Color.WHITE);
+            font.draw(batch, "Chargement du niveau...", 20, 40);
+        }
         batch.end();
+        lastFrameBatchFlushes = batch.totalRenderCalls - flushesBefore;
 
         // Rendu des écrans UI
         if (launchMenu.isActive()) launchMenu.render();
@@ -300,59 +362,53 @@ public class Main extends ApplicationAdapter {
 
     private void processNetworkEvents() {
         if (gameClient == null || !gameClient.connected) return;
-
-        PacketReturnToMenu returnToMenuPacket;
-        while ((returnToMenuPacket = gameClient.pollReturnToMenu()) != null) {
-            handleReturnToMenuFromNetwork(returnToMenuPacket.reason);
-        }
-
-        // Gestion des paquets de redémarrage
-        PacketRestartRequest restartPacket;
-        while ((restartPacket = gameClient.pollRestartRequest()) != null) {
-            if (restartPacket.restartId <= lastHandledRestartId) {
-                gameClient.sendRestartAck(restartPacket.restartId);
-                continue;
-            }
-            gameClient.resetNetworkState();
-            waitingForMultiplayerStart = false;
-            pendingLevelPath = restartPacket.levelPath;
-            multiplayerWaitingScreen.deactivate();
-            initGame(restartPacket.levelPath);
-            lastHandledRestartId = restartPacket.restartId;
-            gameClient.sendRestartAck(restartPacket.restartId);
-        }
-
-        // Gestion du début de la partie
-        PacketStartGame startPacket = gameClient.pollStartGamePacket();
-        if (startPacket != null) {
-            lastHandledRestartId = -1;
-            if (gameClient != null) {
+        gameClient.drainEvents(networkEventHandler);
+    }
+
+    // Un événement du serveur, dans l'ordre d'arrivée : un redémarrage suivi d'une fin de partie reste dans cet ordre
+    private void handleNetworkEvent(NetworkEvent event) {
+        if (gameClient == null) return; // retour au menu déjà traité dans cette frame
+        switch (event.type) {
+            case NetworkEvent.RETURN_TO_MENU:
+                handleReturnToMenuFromNetwork(event.reason);
+                break;
+            case NetworkEvent.RESTART_REQUEST:
+                if (event.restartId <= lastHandledRestartId) {
+                    gameClient.sendRestartAck(event.restartId);
+                    break;
+                }
                 gameClient.resetNetworkState();
-            }
-            waitingForMultiplayerStart = false;
-            pendingLevelPath = startPacket.levelPath;
-            multiplayerWaitingScreen.deactivate();
-            initGame(startPacket.levelPath);
-        }
-
-        // Gestion de la fin de la partie
-        PacketGameOver overPacket = gameClient.pollGameOverPacket();
-        if (overPacket != null) {
-            String reason = (overPacket.reason != null && !overPacket.reason.isBlank())
-                ? overPacket.reason
-                : "Partie terminée.";
-            waitingForMultiplayerStart = false;
-            pendingLevelPath = null;
-            multiplayerWaitingScreen.deactivate();
-            triggerGameOver(reason);
-        }
-
-        // Gestion des changements d'état des portes
-        PacketDoorState doorPacket;
-        while ((doorPacket = gameClient.pollDoorStatePacket()) != null) {
-            if (carte != null) {
-                carte.applyDoorState(doorPacket.doorId, doorPacket.open);
-            }
+                waitingForMultiplayerStart = false;
+                pendingLevelPath = event.levelPath;
+                multiplayerWaitingScreen.deactivate();
+                initGame(event.levelPath);
+                lastHandledRestartId = event.restartId;
+                gameClient.sendRestartAck(event.restartId);
+                break;
+            case NetworkEvent.START_GAME:
+                lastHandledRestartId = -1;
+                gameClient.resetNetworkState();
+                waitingForMultiplayerStart = false;
+                pendingLevelPath = event.levelPath;
+                multiplayerWaitingScreen.deactivate();
+                initGame(event.levelPath);
+                break;
+            case NetworkEvent.GAME_OVER:
+                String reason = (event.reason != null && !event.reason.isBlank())
+                    ? event.reason
+                    : "Partie terminée.";
+                waitingForMultiplayerStart = false;
+                pendingLevelPath = null;
+                multiplayerWaitingScreen.deactivate();
+                triggerGameOver(reason);
+                break;
+            case NetworkEvent.DOOR_STATE:
+                if (carte != null) {
+                    carte.applyDoorState(event.doorId, event.open, event.elapsed);
+                }
+                break;
+            default:
+                break;
         }
     }
 
@@ -366,65 +422,75 @@ public class Main extends ApplicationAdapter {
     private boolean isGameBlocked() {
         return launchMenu.isActive() || editorStartMenu.isActive() || levelSelectionMenu.isActive() ||
                createMap.isActive() || pauseMenu.isActive() || gameOverMenu.isActive() ||
-               multiplayerMenu.isActive() || multiplayerWaitingScreen.isActive() || waitingForMultiplayerStart || waitingReturnToMenu;
+               multiplayerMenu.isActive() || multiplayerWaitingScreen.isActive() || waitingForMultiplayerStart || waitingReturnToMenu ||
+               levelLoader.isLoading();
     }
 
     private void handleGlobalInput() {
         if (Gdx.input.isKeyJustPressed(Input.Keys.ESCAPE) && joueur != null) {
             togglePause();
         }
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F3)) {
+            showRenderStats = !showRenderStats;
+        }
 
     }
 
     private void updateGame(float delta) {
+        if (multiplayerSessionActive) {
+            // En multijoueur, le serveur simule le niveau et décide seul des positions, des morts
+            // et de la victoire : le joueur local est prédit, la fin de partie arrive par
+            // PacketGameOver (voir processNetworkEvents)
+            updatePredictedPlayer(delta);
+            // creepers placés au tick du serveur, pas avancés ici : voir GameClient.getAutomateTick
+            int automateTick = gameClient != null ? gameClient.getAutomateTick() : 0;
+            carte.syncAutomates(automateTick * (double) ServerWorld.TICK_STEP, delta);
+            carte.collide(joueur);
+            return;
+        }
         joueur.update(delta, carte);
-        updateCamera();
-        if (carte.updateAutomates(delta, joueur)) {
+        boolean tue = carte.updateAutomates(delta, joueur);
+        if (tue) {
             joueur.setDead(true);
             triggerGameOver("Vous vous etes fait tuer !");
-            if (multiplayerSessionActive && gameClient != null) {
-                gameClient.sendGameOver("Un joueur est mort.");
-            }
             return;
         }
         if (joueur.getY() < 1) {
             joueur.setDead(true);
             triggerGameOver("Vous etes tombe dans un gouffre !");
-            if (multiplayerSessionActive && gameClient != null) {
-                gameClient.sendGameOver("Un joueur est mort.");
-            }
             return;
         }
-        if (multiplayerSessionActive) {
-            syncNetworkState();
-        } else if (joueur != null) {
-            joueur.updateRemotePlayers(null);
-        }
+        joueur.updateRemotePlayers(null);
         if (joueur.getX() + joueur.getWidth() >= carte.getMapWidth()) {
             triggerGameOver("Vous avez gagné !");
-            if (multiplayerSessionActive && gameClient != null) {
-                gameClient.sendGameOver("Victoire !");
-            }
         }
     }
 
-    private void syncNetworkState() {
-        if (joueur == null) return;
+    // Entrées appliquées tout de suite et envoyées au serveur, après recalage sur sa dernière correction
+    private void updatePredictedPlayer(float delta) {
+        int input = joueur.readInput();
+        if (gameClient != null && gameClient.connected) {
+            gameClient.reconcile(joueur, carte, delta);
+            gameClient.sendInput(input, joueur);
+        }
+        joueur.update(input, delta, carte);
+    }
+
+    // Joueurs distants replacés à chaque frame : leur position est interpolée à l'instant du rendu
+    private void updateRemotePlayersForRender() {
+        if (joueur == null || !multiplayerSessionActive) return;
         if (gameClient == null || !gameClient.connected) {
             joueur.updateRemotePlayers(null);
             return;
         }
-
-        gameClient.sendPlayerState(joueur.getX(), joueur.getY(), joueur.isDead());
-        joueur.updateRemotePlayers(gameClient.getRemotePlayersSnapshot());
-        if (joueur.isAnyRemoteDead()) {
-            triggerGameOver("Un autre joueur est mort !");
-        }
+        joueur.updateRemotePlayers(gameClient.sampleRemotePlayers());
     }
 
     private void setMultiplayerSessionActive(boolean active) {
         if (multiplayerSessionActive == active) return;
         multiplayerSessionActive = active;
+        simulationStep = active ? ServerWorld.TICK_STEP : localSimulationStep;
+        simulationAccumulator = 0f;
         if (!active && joueur != null) {
             joueur.updateRemotePlayers(null);
         }
@@ -447,10 +513,10 @@ public class Main extends ApplicationAdapter {
         }
     }
 
-    private void updateCamera() {
+    private void updateCamera(float alpha) {
         if (joueur == null || carte == null) return;
         float screenW = Gdx.graphics.getWidth();
-        cameraX = joueur.getX() + joueur.getWidth() / 2f - screenW / 2f;
+        cameraX = joueur.getRenderX(alpha) + joueur.getWidth() / 2f - screenW / 2f;
         if (cameraX < 0) cameraX = 0;
         float maxCam = Math.max(0, carte.getMapWidth() - screenW);
         if (cameraX > maxCam) cameraX = maxCam;
@@ -460,6 +526,22 @@ public class Main extends ApplicationAdapter {
         if (joueur == null) return;
         font.setColor(Color.WHITE);
         font.draw(batch, "Temps : " + (int)(joueur.getElapsedTime()) + "s", 20, Gdx.graphics.getHeight() - 20);
+        if (showRenderStats) {
+            font.draw(batch, "Flushs batch : " + lastFrameBatchFlushes, 20, Gdx.graphics.getHeight() - 40);
+            if (AllocationMeter.isSupported()) {
+                font.draw(batch, "Allocations jeu : " + lastFrameUpdateAllocatedBytes + " octets/frame", 20, Gdx.graphics.getHeight() - 60);
+            }
+        }
+    }
+
+    // Nombre de vidages du SpriteBatch pendant la dernière frame de jeu
+    public int getLastFrameBatchFlushes() {
+        return lastFrameBatchFlushes;
+    }
+
+    // Octets alloués par updateGame pendant la dernière frame de jeu (-1 si non mesurable)
+    public long getLastFrameUpdateAllocatedBytes() {
+        return AllocationMeter.isSupported() ? lastFrameUpdateAllocatedBytes : -1;
     }
 
     // --- Gestion du réseau ---
@@ -476,6 +558,14 @@ public class Main extends ApplicationAdapter {
         }
     }
 
+    public String getRoomName() {
+        return roomName;
+    }
+
+    public void setRoomName(String roomName) {
+        this.roomName = GameServer.normalizeRoomName(roomName);
+    }
+
     public void hostLocalServer() {
         if (gameServer != null) {
             System.out.println("Serveur déjà lancé.");
@@ -503,6 +593,7 @@ public class Main extends ApplicationAdapter {
             if (gameClient == null || !gameClient.connected) {
                 String host = (remoteHost != null && !remoteHost.isBlank()) ? remoteHost : DEFAULT_REMOTE_HOST;
                 gameClient = new GameClient(host);
+                gameClient.sendJoinRoom(roomName);
                 setHostPlayer(true);
                 setMultiplayerSessionActive(true);
                 System.out.println("✅ Client local connecté au serveur local.");
@@ -526,6 +617,7 @@ public class Main extends ApplicationAdapter {
         }
         try {
             gameClient = new GameClient(host);
+            gameClient.sendJoinRoom(roomName);
             setHostPlayer(false);
             setMultiplayerSessionActive(true);
         } catch (IOException e) {
@@ -581,12 +673,6 @@ public class Main extends ApplicationAdapter {
         }
     }
 
-    private void handleLocalDoorStateChange(int doorId, boolean open) {
-        if (gameClient != null && gameClient.connected) {
-            gameClient.sendDoorState(doorId, open);
-        }
-    }
-
     @Override
     public void dispose() {
         stopNetwork();
@@ -596,12 +682,9 @@ public class Main extends ApplicationAdapter {
         uiSkin.dispose();
 
         background.dispose();
-        blockTop.dispose();
-        blockBottom.dispose();
-        creeperTex.dispose();
-        picsTex.dispose();
 
         if (joueur != null) joueur.dispose();
+        levelLoader.dispose();
         carte.dispose();
         launchMenu.dispose();
         editorStartMenu.dispose();
@@ -609,9 +692,7 @@ public class Main extends ApplicationAdapter {
         gameOverMenu.dispose();
         levelSelectionMenu.dispose();
         createMap.dispose();
-
-        if (doorTex != null) doorTex.dispose();
-        if (pressurePlateTex != null) pressurePlateTex.dispose();
+        atlas.dispose();
         multiplayerMenu.dispose();
         multiplayerWaitingScreen.dispose();
     }
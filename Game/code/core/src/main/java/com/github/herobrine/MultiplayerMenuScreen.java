@@ -13,10 +13,12 @@ import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.ObjectMap;
+import com.github.herobrine.reseau.GameServer;
 
 public class MultiplayerMenuScreen extends AbstractMenuScreen {
 
     private final Main game;
+    private final TextField roomField;
     private final TextField hostIpField;
     private final TextButton prevLevelButton;
     private final TextButton nextLevelButton;
@@ -34,6 +36,10 @@ public class MultiplayerMenuScreen extends AbstractMenuScreen {
 
         Label title = new Label("Mode multijoueur", skin);
 
+        // Salle commune à l'hôte et aux joueurs qui le rejoignent
+        roomField = new TextField("", skin);
+        roomField.setMessageText("Nom de la salle (facultatif)");
+
         Label hostTitle = new Label("Host Game", skin);
         hostIpField = new TextField("", skin);
         hostIpField.setMessageText("Ex : 127.0.0.1");
@@ -75,6 +81,7 @@ public class MultiplayerMenuScreen extends AbstractMenuScreen {
                     return;
                 }
                 game.setRemoteHost(ip);
+                game.setRoomName(roomField.getText());
                 game.hostAndPlay();
                 if (!game.isClientConnected()) {
                     System.out.println("Client non connecté, impossible d'initialiser le lobby.");
@@ -100,6 +107,7 @@ public class MultiplayerMenuScreen extends AbstractMenuScreen {
                     return;
                 }
                 game.setRemoteHost(ip);
+                game.setRoomName(roomField.getText());
                 game.connectToConfiguredHost();
                 if (game.isClientConnected()) {
                     game.awaitMultiplayerStart();
@@ -118,6 +126,8 @@ public class MultiplayerMenuScreen extends AbstractMenuScreen {
 
         table.add(title).padBottom(30);
         table.row();
+        table.add(roomField).width(400).height(50).padBottom(20);
+        table.row();
 
         table.add(hostTitle).padBottom(10);
         table.row();
@@ -146,6 +156,7 @@ public class MultiplayerMenuScreen extends AbstractMenuScreen {
         hostIpField.setText(game.getRemoteHost());
         joinIpField.setText(game.getRemoteHost());
         hostPlayerCountField.setText("");
+        roomField.setText(GameServer.DEFAULT_ROOM.equals(game.getRoomName()) ? "" : game.getRoomName());
         super.activate();
     }
 
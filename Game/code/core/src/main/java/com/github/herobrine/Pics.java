@@ -1,15 +1,14 @@
 package com.github.herobrine;
 
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 
 public class Pics extends AutomateMortel {
-    private final Texture texture;
+    private final TextureRegion texture;
 
-    public Pics(int gridX, int gridY, int tile) {
+    public Pics(int gridX, int gridY, int tile, GameAtlas atlas) {
         super(gridX * tile, (gridY + 1) * tile, 60f, 20f);
-        this.texture = new Texture("Picss.png");
+        this.texture = GameAtlas.regionOrNull(atlas, GameAtlas.PICS);
     }
 
     @Override
@@ -27,30 +26,7 @@ public class Pics extends AutomateMortel {
      */
     @Override
     public boolean kill(Joueur joueur) {
-        // Création des rectangles pour la hitbox composite du joueur
-        float feetHeight = joueur.getHeight() / 4;
-        float upperBodyHeight = joueur.getHeight() - feetHeight;
-
-        Rectangle playerFeet = new Rectangle(
-            joueur.getX() + joueur.getFeetOffsetX(),
-            joueur.getY(),
-            joueur.getFeetWidth(),
-            feetHeight
-        );
-
-        Rectangle playerUpperBody = new Rectangle(
-            joueur.getX(),
-            joueur.getY() + feetHeight,
-            joueur.getBodyWidth(),
-            upperBodyHeight
-        );
-
         // On vérifie si la hitbox des Pics touche l'une ou l'autre partie du corps du joueur
-        return hitbox.overlaps(playerFeet) || hitbox.overlaps(playerUpperBody);
-    }
-
-    @Override
-    public void dispose() {
-        if (texture != null) texture.dispose();
+        return joueur.compositeHitboxOverlaps(hitbox);
     }
 }
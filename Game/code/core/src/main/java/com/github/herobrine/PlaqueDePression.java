@@ -3,9 +3,9 @@ package com.github.herobrine;
 public class PlaqueDePression extends AutomateNonMortel {
     private Porte porteAssociee;
 
-    public PlaqueDePression(float x, float y, int tileSize) { // MODIFIÉ : Prend tileSize en paramètre
+    public PlaqueDePression(float x, float y, int tileSize, GameAtlas atlas) { // MODIFIÉ : Prend tileSize en paramètre
         // La plaque de pression fait 1 tuile de large et 1 tuile de haut
-        super(x, y, "pressure_plate.png", tileSize, tileSize); // MODIFIÉ
+        super(x, y, GameAtlas.regionOrNull(atlas, GameAtlas.PRESSURE_PLATE), tileSize, tileSize); // MODIFIÉ
         // La hitbox est initialisée à la taille d'une tuile (1x1)
         this.hitbox.width = tileSize;
         this.hitbox.height = tileSize;
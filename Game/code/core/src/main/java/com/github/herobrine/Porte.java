@@ -1,13 +1,14 @@
 package com.github.herobrine;
 
-import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 
 public class Porte extends AutomateNonMortel {
     public interface DoorStateNotifier {
         void onDoorStateChanged(int doorId, boolean open);
     }
 
-    private static DoorStateNotifier notifier;
+    // Prévenu des ouvertures/fermetures décidées localement (pas de celles reçues du réseau)
+    private DoorStateNotifier notifier;
 
     private boolean ouverte = false;
     private float timer = 0f;
@@ -16,20 +17,20 @@ public class Porte extends AutomateNonMortel {
     private final int id;
 
     // NOUVEAU : Les deux textures pour la porte
-    private final Texture textureFermee;
-    private final Texture textureOuverte;
+    private final TextureRegion textureFermee;
+    private final TextureRegion textureOuverte;
 
-    public Porte(float x, float y, int tileSize, int id) {
+    public Porte(float x, float y, int tileSize, int id, GameAtlas atlas) {
         // Le constructeur parent est appelé avec la texture par défaut (fermée)
-        super(x, y, "Porte fermee.png", tileSize, 4 * tileSize);
+        super(x, y, GameAtlas.regionOrNull(atlas, GameAtlas.DOOR_CLOSED), tileSize, 4 * tileSize);
         this.TILE_SIZE = tileSize;
         this.id = id;
         this.hitbox.width = TILE_SIZE/3;
         this.hitbox.height = 4 * TILE_SIZE;
 
         // NOUVEAU : Chargement des deux textures
-        this.textureFermee = this.texture; // La texture initiale est déjà "Porte fermee.png"
-        this.textureOuverte = new Texture("Porte ouverte.png");
+        this.textureFermee = this.texture; // La texture initiale est déjà la porte fermée
+        this.textureOuverte = GameAtlas.regionOrNull(atlas, GameAtlas.DOOR_OPEN);
     }
 
     @Override
@@ -55,34 +56,27 @@ public class Porte extends AutomateNonMortel {
         return ouverte;
     }
 
-    @Override
-    public void dispose() {
-        // NOUVEAU : Libérer les deux textures
-        if (textureFermee != null) textureFermee.dispose();
-        if (textureOuverte != null) textureOuverte.dispose();
-        // Le super.dispose() n'est plus nécessaire car nous gérons les textures ici
-    }
-
     public int getId() {
         return id;
     }
 
-    public static void setDoorStateNotifier(DoorStateNotifier doorStateNotifier) {
+    public void setDoorStateNotifier(DoorStateNotifier doorStateNotifier) {
         notifier = doorStateNotifier;
     }
 
-    public void applyNetworkState(boolean open) {
+    /**
+     * État décidé par le serveur ; elapsed = secondes déjà écoulées depuis ce changement
+     * côté serveur, pour que la porte se referme en même temps que la sienne.
+     */
+    public void applyNetworkState(boolean open, float elapsed) {
         setDoorState(open, false);
+        if (open) timer = Math.min(Math.max(0f, elapsed), DUREE_OUVERTURE);
     }
 
     private void setDoorState(boolean open, boolean notifyNetwork) {
         if (this.ouverte == open) {
-            if (open) {
-                timer = 0f;
-                if (notifyNetwork && notifier != null) {
-                    notifier.onDoorStateChanged(id, true);
-                }
-            }
+            // déjà dans cet état : la minuterie repart, sans rien annoncer au réseau
+            if (open) timer = 0f;
             return;
         }
         this.ouverte = open;
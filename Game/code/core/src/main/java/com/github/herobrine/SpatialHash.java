@@ -0,0 +1,81 @@
+package com.github.herobrine;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+
+/**
+ * Grille de hachage spatial sur les colonnes de tuiles, pour ne tester que les
+ * automates proches du joueur.
+ * Chaque objet est rangé dans la colonne de son bord gauche ; une recherche élargit
+ * donc sa borne gauche de la largeur du plus large objet inséré, ce qui suffit à
+ * trouver chaque objet chevauchant la zone, une seule fois.
+ * Les objets statiques sont insérés une fois au chargement ; les objets mobiles
+ * signalent leurs déplacements avec move(), qui ne fait rien tant qu'ils restent
+ * dans la même colonne.
+ */
+public class SpatialHash<T> {
+    private final float cellWidth;
+    private final IntMap<Array<T>> cells = new IntMap<>();
+    private float maxItemWidth = 0f;
+
+    public SpatialHash(float cellWidth) {
+        this.cellWidth = cellWidth;
+    }
+
+    private int cellOf(float x) {
+        return (int) Math.floor(x / cellWidth);
+    }
+
+    public void insert(T item, float x, float width) {
+        int cell = cellOf(x);
+        Array<T> bucket = cells.get(cell);
+        if (bucket == null) {
+            bucket = new Array<>(false, 4);
+            cells.put(cell, bucket);
+        }
+        bucket.add(item);
+        if (width > maxItemWidth) maxItemWidth = width;
+    }
+
+    public void remove(T item, float x) {
+        Array<T> bucket = cells.get(cellOf(x));
+        if (bucket != null) bucket.removeValue(item, true);
+    }
+
+    // À appeler après un déplacement, avec l'ancienne et la nouvelle position
+    public void move(T item, float oldX, float newX) {
+        int oldCell = cellOf(oldX);
+        int newCell = cellOf(newX);
+        if (oldCell == newCell) return;
+        Array<T> bucket = cells.get(oldCell);
+        if (bucket != null) bucket.removeValue(item, true);
+        bucket = cells.get(newCell);
+        if (bucket == null) {
+            bucket = new Array<>(false, 4);
+            cells.put(newCell, bucket);
+        }
+        bucket.add(item);
+    }
+
+    /**
+     * Ajoute à out (vidé au préalable) les objets susceptibles de chevaucher [minX, maxX].
+     * Ce ne sont que des candidats : le test de collision précis reste à faire.
+     */
+    public void query(float minX, float maxX, Array<T> out) {
+        out.clear();
+        int first = cellOf(minX - maxItemWidth);
+        int last = cellOf(maxX);
+        for (int cell = first; cell <= last; cell++) {
+            Array<T> bucket = cells.get(cell);
+            if (bucket == null) continue;
+            for (int i = 0; i < bucket.size; i++) {
+                out.add(bucket.get(i));
+            }
+        }
+    }
+
+    public void clear() {
+        cells.clear();
+        maxItemWidth = 0f;
+    }
+}
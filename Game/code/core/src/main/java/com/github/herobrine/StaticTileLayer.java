@@ -0,0 +1,130 @@
+package com.github.herobrine;
+
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Disposable;
+
+import java.util.Arrays;
+
+/**
+ * Couche de géométrie statique des tuiles (blocs du dessus / du dessous).
+ * Les tuiles ne bougent plus après le chargement du niveau : elles sont envoyées
+ * une seule fois dans un SpriteCache, un cache par colonne de chunks, puis
+ * redessinées d'un seul appel par chunk visible.
+ */
+public class StaticTileLayer implements Disposable {
+    private SpriteCache cache;
+    private int[] cacheIds = new int[0];
+    private final Matrix4 transform = new Matrix4();
+
+    // Source en cours de construction (voir begin / buildStep)
+    private ChunkedTileStore tiles;
+    private int widthTiles, heightTiles, tile;
+    private TextureRegion top, bottom;
+    private int[] countPerColumn = new int[0];
+    private int nextChunkX = 0;
+
+    /**
+     * Prépare la construction : compte les tuiles et alloue le SpriteCache.
+     * Les colonnes de chunks sont ensuite remplies par buildStep(), ce qui permet
+     * d'étaler l'envoi de la géométrie sur plusieurs frames.
+     */
+    public void begin(ChunkedTileStore tiles, int widthTiles, int heightTiles, int tile,
+                      TextureRegion top, TextureRegion bottom) {
+        dispose();
+        this.tiles = tiles;
+        this.widthTiles = widthTiles;
+        this.heightTiles = heightTiles;
+        this.tile = tile;
+        this.top = top;
+        this.bottom = bottom;
+        this.nextChunkX = 0;
+        if (widthTiles <= 0) return;
+
+        int chunkColumns = ((widthTiles - 1) >> ChunkedTileStore.CHUNK_SHIFT) + 1;
+        countPerColumn = new int[chunkColumns];
+        int total = 0;
+        for (int gx = 0; gx < widthTiles; gx++) {
+            for (int gy = 0; gy < heightTiles; gy++) {
+                if (tiles.get(gx, gy) != ChunkedTileStore.EMPTY) {
+                    countPerColumn[gx >> ChunkedTileStore.CHUNK_SHIFT]++;
+                    total++;
+                }
+            }
+        }
+
+        cacheIds = new int[chunkColumns];
+        Arrays.fill(cacheIds, -1);
+        if (total == 0) {
+            nextChunkX = chunkColumns;
+            return;
+        }
+
+        // Sans indices, la taille du cache n'est pas limitée à 8191 sprites
+        cache = new SpriteCache(total, false);
+    }
+
+    // Remplit au plus maxChunkColumns colonnes de chunks ; retourne true quand tout est construit
+    public boolean buildStep(int maxChunkColumns) {
+        int built = 0;
+        while (nextChunkX < cacheIds.length && built < maxChunkColumns) {
+            int chunkX = nextChunkX++;
+            if (countPerColumn[chunkX] == 0) continue;
+            int startGX = chunkX << ChunkedTileStore.CHUNK_SHIFT;
+            int endGX = Math.min(widthTiles, startGX + ChunkedTileStore.CHUNK_SIZE);
+            cache.beginCache();
+            for (int gx = startGX; gx < endGX; gx++) {
+                for (int gy = 0; gy < heightTiles; gy++) {
+                    byte type = tiles.get(gx, gy);
+                    if (type == Carte.TILE_TOP) {
+                        cache.add(top, gx * tile, gy * tile, tile, tile);
+                    } else if (type == Carte.TILE_BOTTOM) {
+                        cache.add(bottom, gx * tile, gy * tile, tile, tile);
+                    }
+                }
+            }
+            cacheIds[chunkX] = cache.endCache();
+            built++;
+        }
+        return isBuilt();
+    }
+
+    /**
+     * Dessine les colonnes de chunks [firstChunkX, lastChunkX].
+     * Le SpriteCache ne peut pas être utilisé pendant un batch.begin() : à appeler
+     * entre deux batchs (voir Main.render), jamais au milieu d'un.
+     */
+    public void render(Matrix4 projection, float cameraX, int firstChunkX, int lastChunkX) {
+        if (cache == null) return;
+        int first = Math.max(0, firstChunkX);
+        int last = Math.min(cacheIds.length - 1, lastChunkX);
+        if (first > last) return;
+
+        cache.setProjectionMatrix(projection);
+        transform.setToTranslation(-cameraX, 0f, 0f);
+        cache.setTransformMatrix(transform);
+        cache.begin();
+        for (int chunkX = first; chunkX <= last; chunkX++) {
+            int id = cacheIds[chunkX];
+            if (id >= 0) cache.draw(id);
+        }
+        cache.end();
+    }
+
+    public boolean isBuilt() {
+        return nextChunkX >= cacheIds.length;
+    }
+
+    @Override
+    public void dispose() {
+        if (cache != null) {
+            cache.dispose();
+            cache = null;
+        }
+        cacheIds = new int[0];
+        countPerColumn = new int[0];
+        nextChunkX = 0;
+        tiles = null;
+    }
+}
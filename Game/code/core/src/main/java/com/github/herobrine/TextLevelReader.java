@@ -0,0 +1,189 @@
+package com.github.herobrine;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Lecteur du format texte des niveaux (assets/levels/*.txt), une entrée par ligne :
+ * T x1 y1 [x2 y2], C startX y endX y, P x y, D x y, PP x y. Les lignes vides
+ * et celles commençant par # sont ignorées, tout comme les jetons qui ne sont
+ * pas des entiers.
+ *
+ * Les octets sont parcourus une seule fois, par blocs, sans créer de chaîne ni
+ * d'entier boxé : seuls le tampon de lecture et l'état de l'analyse sont alloués,
+ * une fois par fichier, quelle que soit sa taille.
+ */
+public final class TextLevelReader {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_COORDS = 4;
+
+    // Type d'entrée, déterminé par le premier jeton de la ligne
+    private static final int TYPE_NONE = 0;
+    private static final int TYPE_UNKNOWN = 1;
+    private static final int TYPE_COMMENT = 2;
+    private static final int TYPE_T = 3;
+    private static final int TYPE_C = 4;
+    private static final int TYPE_P = 5;
+    private static final int TYPE_D = 6;
+    private static final int TYPE_PP = 7;
+
+    private final LevelRecordHandler handler;
+
+    // État de la ligne courante
+    private int type = TYPE_NONE;
+    private final int[] coords = new int[MAX_COORDS];
+    private int coordCount = 0;
+
+    // État du jeton courant
+    private boolean inToken = false;
+    private int tokenLength = 0;
+    private int firstChar, secondChar;
+    private boolean negative, validNumber;
+    private long value;
+
+    private TextLevelReader(LevelRecordHandler handler) {
+        this.handler = handler;
+    }
+
+    public static void read(FileHandle file, LevelRecordHandler handler) {
+        try (InputStream in = file.read()) {
+            read(in, handler);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Erreur de lecture du niveau : " + file.path(), e);
+        }
+    }
+
+    public static void read(InputStream in, LevelRecordHandler handler) throws IOException {
+        TextLevelReader reader = new TextLevelReader(handler);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            reader.feed(buffer, 0, n);
+        }
+        reader.endLine();
+    }
+
+    public static void read(byte[] data, int offset, int length, LevelRecordHandler handler) {
+        TextLevelReader reader = new TextLevelReader(handler);
+        reader.feed(data, offset, length);
+        reader.endLine();
+    }
+
+    private void feed(byte[] data, int offset, int length) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            int b = data[i] & 0xFF;
+            if (b == '\n' || b == '\r') {
+                endLine();
+            } else if (type == TYPE_COMMENT || type == TYPE_UNKNOWN) {
+                // reste de la ligne ignoré
+            } else if (b <= ' ') {
+                if (inToken) endToken();
+            } else {
+                if (!inToken) startToken();
+                addChar(b);
+            }
+        }
+    }
+
+    private void startToken() {
+        inToken = true;
+        tokenLength = 0;
+        negative = false;
+        validNumber = true;
+        value = 0L;
+    }
+
+    private void addChar(int b) {
+        if (tokenLength == 0) {
+            firstChar = b;
+        } else if (tokenLength == 1) {
+            secondChar = b;
+        }
+        tokenLength++;
+
+        if (!validNumber) return;
+        if (b >= '0' && b <= '9') {
+            value = value * 10 + (b - '0');
+            if (value > (long) Integer.MAX_VALUE + 1) validNumber = false;
+        } else if (tokenLength == 1 && (b == '-' || b == '+')) {
+            negative = b == '-';
+        } else {
+            validNumber = false;
+        }
+    }
+
+    private void endToken() {
+        inToken = false;
+        if (type == TYPE_NONE) {
+            type = typeOf();
+            return;
+        }
+        // Comme Integer.parseInt : un signe seul ou un dépassement ne sont pas des entiers
+        boolean hasDigit = tokenLength > 1 || (firstChar >= '0' && firstChar <= '9');
+        if (!validNumber || !hasDigit) return;
+        long signed = negative ? -value : value;
+        if (signed > Integer.MAX_VALUE) return;
+        if (coordCount < MAX_COORDS) {
+            coords[coordCount] = (int) signed;
+        }
+        coordCount++;
+    }
+
+    private int typeOf() {
+        if (firstChar == '#') return TYPE_COMMENT;
+        int c1 = Character.toUpperCase(firstChar);
+        if (tokenLength == 1) {
+            switch (c1) {
+                case 'T': return TYPE_T;
+                case 'C': return TYPE_C;
+                case 'P': return TYPE_P;
+                case 'D': return TYPE_D;
+                default: return TYPE_UNKNOWN;
+            }
+        }
+        if (tokenLength == 2 && c1 == 'P' && Character.toUpperCase(secondChar) == 'P') return TYPE_PP;
+        return TYPE_UNKNOWN;
+    }
+
+    private void endLine() {
+        if (inToken) endToken();
+        int n = coordCount;
+        int[] c = coords;
+
+        switch (type) {
+            case TYPE_T:
+                if (n >= 4) {
+                    handler.onTop(c[0], c[1], c[2], c[3]);
+                } else if (n >= 2) {
+                    handler.onTop(c[0], c[1], c[0], c[1]);
+                }
+                break;
+            case TYPE_C:
+                if (n >= 3) {
+                    int startX = c[0];
+                    int y = c[1];
+                    int endX = (n >= 4) ? c[2] : startX;
+                    handler.onCreeper(Math.min(startX, endX), Math.max(startX, endX), y);
+                }
+                break;
+            case TYPE_P:
+                if (n >= 2) handler.onPics(c[0], c[1]);
+                break;
+            case TYPE_D:
+                if (n >= 2) handler.onDoor(c[0], c[1]);
+                break;
+            case TYPE_PP:
+                if (n >= 2) handler.onPressurePlate(c[0], c[1]);
+                break;
+            default:
+                break;
+        }
+
+        type = TYPE_NONE;
+        coordCount = 0;
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.herobrine;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Registre de textures partagées avec comptage de références.
+ * Chaque image n'est décodée et envoyée au GPU qu'une seule fois, quel que soit
+ * le nombre d'automates qui l'utilisent ; elle est libérée quand le dernier
+ * utilisateur appelle release().
+ */
+public class TextureRegistry implements Disposable {
+
+    private static class Entry {
+        final Texture texture;
+        int references;
+
+        Entry(Texture texture) {
+            this.texture = texture;
+        }
+    }
+
+    private final ObjectMap<String, Entry> entries = new ObjectMap<>();
+
+    // Retourne la texture associée au chemin, en la chargeant au premier appel
+    public Texture acquire(String path) {
+        Entry entry = entries.get(path);
+        if (entry == null) {
+            entry = new Entry(new Texture(path));
+            entries.put(path, entry);
+        }
+        entry.references++;
+        return entry.texture;
+    }
+
+    // Rend une référence ; la texture est détruite quand plus personne ne l'utilise
+    public void release(String path) {
+        Entry entry = entries.get(path);
+        if (entry == null) {
+            Gdx.app.error("TextureRegistry", "Libération d'une texture inconnue : " + path);
+            return;
+        }
+        entry.references--;
+        if (entry.references <= 0) {
+            entry.texture.dispose();
+            entries.remove(path);
+        }
+    }
+
+    public int getLoadedCount() {
+        return entries.size;
+    }
+
+    @Override
+    public void dispose() {
+        for (Entry entry : entries.values()) {
+            entry.texture.dispose();
+        }
+        entries.clear();
+    }
+}
@@ -0,0 +1,121 @@
+package com.github.herobrine.reseau;
+
+import com.github.herobrine.Carte;
+import com.github.herobrine.Joueur;
+
+/**
+ * Prédiction du joueur local côté client.
+ * Chaque tick, le client applique tout de suite ses entrées (Joueur.step) et les
+ * envoie numérotées au serveur, qui les rejoue et reste seul juge de la position.
+ * Les instantanés rapportent l'état calculé par le serveur et la dernière entrée
+ * qu'il a traitée : le client repart de cet état et rejoue les entrées suivantes,
+ * encore en route. Sans écart, la position ne bouge pas ; sinon elle se recale.
+ * Les automates suivent la même avance : ils sont affichés au tick où le serveur les
+ * aura quand il appliquera la dernière entrée prédite, celui où il jugera le joueur.
+ *
+ * record() et reconcile() sont appelés par le thread de jeu, setCorrection() par le
+ * thread réseau : méthodes synchronisées.
+ */
+final class ClientPrediction {
+    // Entrées conservées : un peu plus de 2 s à 60 Hz, bien au-delà d'un aller-retour
+    static final int HISTORY_SIZE = 128;
+    // Chaque paquet répète les dernières entrées, pour survivre à la perte d'un datagramme
+    static final int INPUT_REDUNDANCY = 4;
+    // Écart toléré entre le tick des automates affiché et celui déduit d'un instantané,
+    // pour ne pas faire trembler les creepers à chaque variation de la latence
+    private static final int AUTOMATE_TICK_TOLERANCE = 2;
+
+    private final int[] inputs = new int[HISTORY_SIZE];
+    private int lastSequence = 0;
+
+    private boolean hasCorrection = false;
+    private boolean knowsServerState = false; // une correction reçue depuis le dernier clearCorrection
+    private int correctionAck;
+    private float correctionX;
+    private float correctionY;
+    private float correctionVy;
+    private boolean correctionOnGround;
+    // Entrées d'avance sur le serveur, mesurées quand son accusé progresse (pas au repos)
+    private int automateLead = 0;
+    private boolean knowsAutomates = false;
+    private int automateBaseTick;     // tick des automates affiché quand lastSequence valait...
+    private int automateBaseSequence; // ...cette séquence
+
+    // Numérote une nouvelle entrée et la garde pour un éventuel rejeu
+    synchronized int record(int input) {
+        lastSequence++;
+        inputs[lastSequence & (HISTORY_SIZE - 1)] = input;
+        return lastSequence;
+    }
+
+    // Copie les dernières entrées dans out, de la plus ancienne à la plus récente (lastSequence)
+    synchronized void copyRecent(byte[] out) {
+        for (int i = 0; i < out.length; i++) {
+            int sequence = lastSequence - (out.length - 1 - i);
+            out[i] = sequence > 0 ? (byte) inputs[sequence & (HISTORY_SIZE - 1)] : 0;
+        }
+    }
+
+    synchronized int getLastSequence() {
+        return lastSequence;
+    }
+
+    synchronized void setCorrection(int inputAck, int automateTick, float x, float y, float vy, boolean onGround) {
+        if (!knowsServerState || Network.isNewer(inputAck, correctionAck)) {
+            automateLead = Math.max(0, Math.min(lastSequence - inputAck, HISTORY_SIZE));
+        }
+        int target = automateTick + automateLead;
+        if (!knowsAutomates || Math.abs(target - getAutomateTick()) > AUTOMATE_TICK_TOLERANCE) {
+            knowsAutomates = true;
+            automateBaseTick = target;
+            automateBaseSequence = lastSequence;
+        }
+        hasCorrection = true;
+        knowsServerState = true;
+        correctionAck = inputAck;
+        correctionX = x;
+        correctionY = y;
+        correctionVy = vy;
+        correctionOnGround = onGround;
+    }
+
+    /**
+     * Applique la dernière correction reçue, s'il y en a une : état du serveur puis
+     * rejeu des entrées qu'il n'a pas encore traitées.
+     */
+    synchronized void reconcile(Joueur joueur, Carte carte, float step) {
+        if (!hasCorrection) return;
+        hasCorrection = false;
+        if (Network.isNewer(correctionAck, lastSequence)) return; // entrées d'une connexion précédente
+        if (lastSequence - correctionAck >= HISTORY_SIZE) return; // trop ancienne pour être rejouée
+
+        joueur.setMovementState(correctionX, correctionY, correctionVy, correctionOnGround);
+        for (int sequence = correctionAck + 1; sequence <= lastSequence; sequence++) {
+            joueur.step(inputs[sequence & (HISTORY_SIZE - 1)], step, carte);
+        }
+    }
+
+    synchronized void clearCorrection() {
+        hasCorrection = false;
+        knowsServerState = false;
+        knowsAutomates = false;
+    }
+
+    // Tick des automates à afficher : avance d'un pas par entrée prédite, 0 avant le premier instantané
+    synchronized int getAutomateTick() {
+        if (!knowsAutomates) return 0;
+        return automateBaseTick + (lastSequence - automateBaseSequence);
+    }
+
+    /**
+     * Vrai si le serveur a traité toutes les entrées jusqu'à activeSequence et rapporte le
+     * joueur au repos (au sol, immobile) à la même position, à la quantification près, que
+     * la prédiction : des entrées vides ne changeraient plus rien, inutile de les envoyer.
+     */
+    synchronized boolean isSettled(int activeSequence, Joueur joueur) {
+        if (!knowsServerState || Network.isNewer(activeSequence, correctionAck)) return false;
+        if (!correctionOnGround || correctionVy != 0f || !joueur.isOnGround() || joueur.getVy() != 0f) return false;
+        return SnapshotCodec.quantize(correctionX) == SnapshotCodec.quantize(joueur.getX())
+                && SnapshotCodec.quantize(correctionY) == SnapshotCodec.quantize(joueur.getY());
+    }
+}
@@ -3,13 +3,12 @@ package com.github.herobrine.reseau;
 import com.esotericsoftware.kryonet.Client;
 import com.esotericsoftware.kryonet.Listener;
 import com.esotericsoftware.kryonet.Connection;
+import com.github.herobrine.Carte;
+import com.github.herobrine.Joueur;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 🔹 Classe GameClient
@@ -18,18 +17,51 @@ import java.util.concurrent.ConcurrentLinkedQueue;
  * envoie des paquets (PacketString) et affiche les réponses.
  */
 public class GameClient {
+    // Paquets d'entrées par seconde au plus (-Dherobrine.net.inputSendHz=...), hors changements d'entrée
+    public static final int DEFAULT_INPUT_SEND_HZ = 30;
+    // En dessous, un paquet porterait plus de ticks que les crédits d'entrées du serveur n'en rattrapent
+    private static final int MIN_INPUT_SEND_HZ = 15;
+    // Au repos, un paquet de temps en temps : l'accusé d'instantané reste dans l'historique du serveur
+    private static final long IDLE_KEEPALIVE_NANOS = 250_000_000L;
 
     // 🔸 Attributs
     public Client client;
     public boolean connected = false;
     private final String host;
     int myId;
-    private final Map<Integer, PacketPlayer> remotePlayers = new ConcurrentHashMap<>();
-    private final Queue<PacketDoorState> pendingDoorStates = new ConcurrentLinkedQueue<>();
-    private volatile PacketStartGame pendingStartGame;
-    private volatile PacketGameOver pendingGameOver;
-    private final Queue<PacketRestartRequest> pendingRestartRequests = new ConcurrentLinkedQueue<>();
-    private final Queue<PacketReturnToMenu> pendingReturnToMenu = new ConcurrentLinkedQueue<>();
+    // Joueurs distants, affichés en différé pour lisser l'arrivée irrégulière des instantanés ;
+    // n'est utilisé que par le thread de rendu
+    private final RemotePlayerInterpolator remotePlayers = new RemotePlayerInterpolator();
+    // Trois tables préallouées passent les instantanés du thread réseau au thread de rendu :
+    // le thread réseau remplit snapshotBack puis l'échange avec snapshotExchange, le thread
+    // de rendu échange snapshotSpare contre la table publiée. Aucun verrou, aucune allocation.
+    private RemotePlayerTable snapshotBack = new RemotePlayerTable();
+    private final AtomicReference<RemotePlayerTable> snapshotExchange = new AtomicReference<>(new RemotePlayerTable());
+    private RemotePlayerTable snapshotSpare = new RemotePlayerTable();
+    // Positions affichées cette frame, remplies par sampleRemotePlayers()
+    private final RemotePlayerTable displayedPlayers = new RemotePlayerTable();
+    // Démarrages, redémarrages, fins de partie, portes et retours au menu, dans leur ordre d'arrivée
+    private final NetworkEventInbox<NetworkEvent> events = new NetworkEventInbox<>(NetworkEventInbox.DEFAULT_CAPACITY, NetworkEvent::new);
+    // Instantanés décodés, références des deltas du serveur ; le dernier est renvoyé en accusé.
+    // L'historique et les deux champs qui suivent n'appartiennent qu'au thread réseau
+    private final SnapshotCodec.History snapshotHistory = new SnapshotCodec.History();
+    private final SnapshotCodec.ByteReader snapshotReader = new SnapshotCodec.ByteReader();
+    private volatile int lastSnapshotAck = SnapshotCodec.NO_BASELINE;
+    // Dernier instantané appliqué : un instantané UDP plus ancien arrivé en retard est ignoré
+    private int lastSnapshotSequence = SnapshotCodec.NO_BASELINE;
+    // Tick du serveur de ce même instantané : les portes arrivées par TCP s'y recalent
+    private int lastSnapshotTick = -1;
+    // Demandé par resetNetworkState() (thread de rendu), appliqué par le thread réseau avant le paquet suivant
+    private final AtomicBoolean snapshotResetRequested = new AtomicBoolean();
+    // Entrées du joueur local, prédites ici puis confirmées ou corrigées par le serveur
+    private final ClientPrediction prediction = new ClientPrediction();
+    // Réutilisé d'un envoi à l'autre : Kryo sérialise le paquet pendant sendUDP
+    private final PacketPlayerInput inputPacket = new PacketPlayerInput();
+    private final int ticksPerInputSend;
+    private int ticksSinceInputSend = 0;
+    private int previousInput = 0;
+    private int lastActiveSequence = 0; // dernière entrée non vide
+    private long lastInputSendNanos = 0L;
 
     public GameClient() throws IOException 
     {
@@ -39,12 +71,20 @@ public class GameClient {
     public GameClient(String host) throws IOException 
     {
         this.host = host;
+        // Délai d'affichage des joueurs distants (-Dherobrine.net.interpolationDelayMs=...)
+        remotePlayers.setInterpolationDelay(Integer.getInteger("herobrine.net.interpolationDelayMs",
+                Math.round(RemotePlayerInterpolator.DEFAULT_DELAY_SECONDS * 1000)) / 1000f);
+        int sendHz = Math.max(MIN_INPUT_SEND_HZ, Math.min(ServerWorld.TICK_HZ,
+                Integer.getInteger("herobrine.net.inputSendHz", DEFAULT_INPUT_SEND_HZ)));
+        ticksPerInputSend = (ServerWorld.TICK_HZ + sendHz - 1) / sendHz;
+        // chaque entrée voyage dans INPUT_REDUNDANCY paquets successifs
+        inputPacket.inputs = new byte[ticksPerInputSend * ClientPrediction.INPUT_REDUNDANCY];
 
-        client = new Client();
+        client = new Client(Network.CLIENT_WRITE_BUFFER_SIZE, Network.OBJECT_BUFFER_SIZE);
 
         Network.register(client);
 
-        client.addListener(new Listener() {
+        client.addListener(NetworkConditions.fromSystemProperties().wrap(new Listener() {
             
             @Override
             public void connected(Connection c) 
@@ -65,47 +105,23 @@ public class GameClient {
             public void received(Connection c, Object o) 
             {
                 // Gérer les différents types de paquets reçus
-                if (o instanceof PacketPlayer pkt) 
+                if (o instanceof PacketWorldSnapshot snapshot)
                 {
-                    if (pkt.id == myId) return;
-
-                    remotePlayers.put(pkt.id, pkt);
+                    applySnapshot(snapshot);
+                    Network.free(snapshot);
+                    return;
                 }
 
                 if (o instanceof PacketDisconnect pd) 
                 {
+                    // retiré de l'affichage par le prochain instantané, qui ne le contient plus
                     System.out.println("Player " + pd.id + " disconnected, removing.");
-                    remotePlayers.remove(pd.id);
                 }
 
-                if (o instanceof PacketStartGame start) 
-                {
-                    pendingStartGame = start;
-                    System.out.println("Received start game packet.");
-                }
-
-                if (o instanceof PacketGameOver over) 
-                {
-                    pendingGameOver = over;
-                }
-
-                if (o instanceof PacketDoorState doorState)
-                {
-                    pendingDoorStates.add(doorState);
-                }
-
-                if (o instanceof PacketRestartRequest restart)
-                {
-                    pendingRestartRequests.add(restart);
-                    System.out.println("Reçu une demande de redémarrage #" + restart.restartId);
-                }
-
-                if (o instanceof PacketReturnToMenu returnToMenu)
-                {
-                    pendingReturnToMenu.add(returnToMenu);
-                }
+                // Démarrage, fin de partie, portes, redémarrage, retour au menu : au thread de jeu, dans l'ordre
+                postEvent(o);
             }
-        });
+        }));
 
         client.start();
 
@@ -115,20 +131,147 @@ public class GameClient {
         System.out.println("✅ Client connecté au serveur " + host + " !");
     }
 
-    public void sendPlayerState(float x, float y, boolean dead) 
+    // Met à jour les joueurs distants d'après l'instantané du serveur, qui fait foi pour la liste
+    private void applySnapshot(PacketWorldSnapshot snapshot)
+    {
+        applySnapshotReset();
+        if (lastSnapshotSequence != SnapshotCodec.NO_BASELINE
+                && !Network.isNewer(snapshot.sequence, lastSnapshotSequence)) {
+            return;
+        }
+        SnapshotCodec.Frame base = snapshotHistory.get(snapshot.baseSequence);
+        if (snapshot.baseSequence != SnapshotCodec.NO_BASELINE && base == null) {
+            // référence inconnue (réinitialisation) : le prochain accusé demande un instantané complet
+            lastSnapshotAck = SnapshotCodec.NO_BASELINE;
+            return;
+        }
+        snapshotReader.reset(snapshot.data);
+        SnapshotCodec.Frame frame = snapshotHistory.slot(snapshot.sequence);
+        frame.decode(snapshot.sequence, base, snapshotReader);
+        lastSnapshotAck = snapshot.sequence;
+        lastSnapshotSequence = snapshot.sequence;
+        lastSnapshotTick = snapshot.tick;
+        if (snapshot.hasOwnState) {
+            prediction.setCorrection(snapshot.inputAck, snapshot.automateTick, snapshot.ownX, snapshot.ownY, snapshot.ownVy, snapshot.ownOnGround);
+        }
+
+        RemotePlayerTable table = snapshotBack;
+        table.clear();
+        for (int i = 0; i < frame.count; i++) {
+            int id = frame.ids[i];
+            if (id == myId) continue;
+            table.add(id, SnapshotCodec.dequantize(frame.x[i]), SnapshotCodec.dequantize(frame.y[i]), frame.dead[i]);
+        }
+        table.serverTick = snapshot.tick;
+        table.receivedNanos = System.nanoTime();
+        table.published = true;
+        // une table publiée mais pas encore lue revient ici et sera écrasée : seul le plus récent compte
+        snapshotBack = snapshotExchange.getAndSet(table);
+    }
+
+    // Recopie un paquet à traiter par le thread de jeu dans une case de la file d'événements
+    private void postEvent(Object o)
+    {
+        if (o instanceof PacketWorldEvents worldEvents) {
+            postDoorEvents(worldEvents);
+            return;
+        }
+        if (!(o instanceof PacketStartGame || o instanceof PacketGameOver
+                || o instanceof PacketRestartRequest || o instanceof PacketReturnToMenu)) {
+            return;
+        }
+        long position = events.claim();
+        if (position < 0) return; // client arrêté
+        NetworkEvent event = events.event(position);
+        if (o instanceof PacketStartGame start) {
+            event.type = NetworkEvent.START_GAME;
+            event.levelPath = start.levelPath;
+            event.playerCount = start.playerCount;
+            System.out.println("Received start game packet.");
+        } else if (o instanceof PacketGameOver over) {
+            event.type = NetworkEvent.GAME_OVER;
+            event.reason = over.reason;
+        } else if (o instanceof PacketRestartRequest restart) {
+            event.type = NetworkEvent.RESTART_REQUEST;
+            event.levelPath = restart.levelPath;
+            event.playerCount = restart.playerCount;
+            event.restartId = restart.restartId;
+            System.out.println("Reçu une demande de redémarrage #" + restart.restartId);
+        } else if (o instanceof PacketReturnToMenu returnToMenu) {
+            event.type = NetworkEvent.RETURN_TO_MENU;
+            event.reason = returnToMenu.reason;
+        }
+        events.publish(position);
+    }
+
+    // Un événement par porte du lot, avec le temps écoulé depuis son tick d'après le dernier instantané
+    private void postDoorEvents(PacketWorldEvents worldEvents)
+    {
+        applySnapshotReset();
+        int ticksAgo = lastSnapshotTick >= 0 ? Math.max(0, lastSnapshotTick - worldEvents.tick) : 0;
+        for (int i = 0; i < worldEvents.doorCount; i++) {
+            long position = events.claim();
+            if (position < 0) return; // client arrêté
+            NetworkEvent event = events.event(position);
+            event.type = NetworkEvent.DOOR_STATE;
+            event.doorId = worldEvents.doorIds[i];
+            event.open = worldEvents.doorOpen[i];
+            event.elapsed = ticksAgo / (float) ServerWorld.TICK_HZ;
+            events.publish(position);
+        }
+    }
+
+    /**
+     * Garde l'entrée du tick (bits Joueur.INPUT_*) pour le rejeu et l'envoie au serveur avec
+     * les précédentes. Le joueur local (état avant l'entrée) l'applique lui-même.
+     * Le débit montant est borné : un paquet tous les ticksPerInputSend ticks, ou tout de
+     * suite si l'entrée change ; quand le serveur voit le joueur au repos là où il est prédit
+     * et que rien n'est pressé, un seul paquet toutes les IDLE_KEEPALIVE_NANOS. Les entrées
+     * vides non envoyées manquent au serveur comme des paquets perdus, sans effet au repos.
+     */
+    public void sendInput(int input, Joueur joueur)
     {
         if (!connected) return;
 
-        PacketPlayer pkt = new PacketPlayer();
-        pkt.id = myId;
-        pkt.x = x;
-        pkt.y = y;
-        pkt.dead = dead;
+        int sequence = prediction.record(input);
+        if (input != 0) lastActiveSequence = sequence;
+        boolean changed = input != previousInput;
+        previousInput = input;
+        ticksSinceInputSend++;
+        long now = System.nanoTime();
+        if (!changed) {
+            if (prediction.isSettled(lastActiveSequence, joueur)) {
+                if (now - lastInputSendNanos < IDLE_KEEPALIVE_NANOS) return;
+            } else if (ticksSinceInputSend < ticksPerInputSend) {
+                return;
+            }
+        }
 
-        client.sendTCP(pkt);
+        inputPacket.sequence = sequence;
+        prediction.copyRecent(inputPacket.inputs);
+        inputPacket.snapshotAck = lastSnapshotAck;
+        Network.sendUnreliable(client, inputPacket);
+        ticksSinceInputSend = 0;
+        lastInputSendNanos = now;
+    }
+
+    // Recale le joueur local sur la dernière correction du serveur, entrées non confirmées rejouées
+    public void reconcile(Joueur joueur, Carte carte, float step)
+    {
+        prediction.reconcile(joueur, carte, step);
+    }
+
+    /**
+     * Tick de la simulation du serveur auquel afficher les automates (creepers) : celui
+     * où il en sera en appliquant la dernière entrée envoyée. À multiplier par ServerWorld.TICK_STEP.
+     */
+    public int getAutomateTick()
+    {
+        return prediction.getAutomateTick();
     }
 
     public void stop() {
+        events.close();
         if (client != null) {
             client.stop();
             connected = false;
@@ -141,10 +284,33 @@ public class GameClient {
         return host;
     }
 
-    // Retourne une copie des joueurs distants
-    public Map<Integer, PacketPlayer> getRemotePlayersSnapshot() 
+    /**
+     * Positions des joueurs distants à afficher maintenant (interpolées), à appeler par le
+     * thread de rendu une fois par frame. La table retournée est réutilisée à l'appel suivant.
+     */
+    public RemotePlayerTable sampleRemotePlayers()
+    {
+        RemotePlayerTable table = snapshotExchange.getAndSet(snapshotSpare);
+        if (table.published) {
+            table.published = false;
+            remotePlayers.push(table);
+        }
+        snapshotSpare = table;
+        remotePlayers.sample(displayedPlayers);
+        return displayedPlayers;
+    }
+
+    public void setInterpolationDelay(float seconds)
     {
-        return new HashMap<>(remotePlayers);
+        remotePlayers.setInterpolationDelay(seconds);
+    }
+
+    // Rejoindre une salle du serveur ; sans cela, le client reste dans la salle par défaut
+    public void sendJoinRoom(String roomName) {
+        if (!connected) return;
+        PacketJoinRoom join = new PacketJoinRoom();
+        join.roomName = roomName;
+        client.sendTCP(join);
     }
 
     // Envoyer la configuration du lobby au serveur
@@ -156,35 +322,6 @@ public class GameClient {
         client.sendTCP(cfg);
     }
 
-    public void sendDoorState(int doorId, boolean open) {
-        if (!connected) return;
-        PacketDoorState state = new PacketDoorState();
-        state.doorId = doorId;
-        state.open = open;
-        client.sendTCP(state);
-    }
-
-    // Récupérer et supprimer le paquet de démarrage du jeu en attente
-    public PacketStartGame pollStartGamePacket() {
-        PacketStartGame pkt = pendingStartGame;
-        pendingStartGame = null;
-        return pkt;
-    }
-
-    public PacketGameOver pollGameOverPacket() {
-        PacketGameOver pkt = pendingGameOver;
-        pendingGameOver = null;
-        return pkt;
-    }
-
-    public PacketDoorState pollDoorStatePacket() {
-        return pendingDoorStates.poll();
-    }
-
-    public PacketRestartRequest pollRestartRequest() {
-        return pendingRestartRequests.poll();
-    }
-
     // Envoyer une confirmation de redémarrage au serveur
     public void sendRestartAck(int restartId) {
         if (!connected) return;
@@ -193,25 +330,33 @@ public class GameClient {
         client.sendTCP(ack);
     }
 
-    // Réinitialiser l'état réseau du client
-    public void resetNetworkState() {
-        remotePlayers.clear();
-        pendingDoorStates.clear();
-        pendingStartGame = null;
-        pendingGameOver = null;
-        pendingRestartRequests.clear();
-        pendingReturnToMenu.clear();
+    /**
+     * Traite les événements reçus depuis l'appel précédent, dans leur ordre d'arrivée.
+     * À appeler par le thread de jeu, une fois par frame.
+     */
+    public void drainEvents(NetworkEvent.Handler handler) {
+        events.drain(handler);
     }
 
-    public void sendGameOver(String reason) {
-        if (!connected) return;
-        PacketGameOver over = new PacketGameOver();
-        over.reason = reason;
-        client.sendTCP(over);
+    // Réinitialiser l'état réseau du client (les événements en file restent à traiter)
+    public void resetNetworkState() {
+        remotePlayers.clear();
+        RemotePlayerTable pending = snapshotExchange.getAndSet(snapshotSpare);
+        pending.published = false;
+        snapshotSpare = pending;
+        lastSnapshotAck = SnapshotCodec.NO_BASELINE;
+        prediction.clearCorrection();
+        // l'historique est en cours d'utilisation par le thread réseau : il le videra lui-même
+        snapshotResetRequested.set(true);
     }
 
-    public PacketReturnToMenu pollReturnToMenu() {
-        return pendingReturnToMenu.poll();
+    // Thread réseau : oublie les instantanés d'avant la réinitialisation demandée par le thread de rendu
+    private void applySnapshotReset() {
+        if (!snapshotResetRequested.getAndSet(false)) return;
+        snapshotHistory.clear();
+        lastSnapshotAck = SnapshotCodec.NO_BASELINE;
+        lastSnapshotSequence = SnapshotCodec.NO_BASELINE;
+        lastSnapshotTick = -1;
     }
 
     public void sendReturnToMenu(String reason) {
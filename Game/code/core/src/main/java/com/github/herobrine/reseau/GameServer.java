@@ -3,14 +3,17 @@ package com.github.herobrine.reseau;
 import com.esotericsoftware.kryonet.Server;
 import com.esotericsoftware.kryonet.Listener;
 import com.esotericsoftware.kryonet.Connection;
+import com.github.herobrine.LevelData;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 
 /**
@@ -18,326 +21,326 @@ import java.util.concurrent.TimeUnit;
  * ------------------------------
  * Ce serveur utilise KryoNet pour gérer les connexions
  * des clients, recevoir des paquets (PacketOrder) et
- * les redistribuer à tous les clients connectés.
+ * les redistribuer aux autres membres de leur salle.
+ * Un même serveur héberge plusieurs parties à la fois, une par salle
+ * (ServerRoom) : chacune a son niveau, ses joueurs, son état de
+ * redémarrage et sa simulation (ServerWorld), qui décide des morts,
+ * de la victoire et de l'état des portes.
+ * Sans fenêtre ni OpenGL, il peut tourner seul via le module server (ServerLauncher).
+ *
+ * Tout l'état du serveur (salles, joueurs, lobby, simulations) appartient à un seul
+ * thread, la boucle de simulation. Les autres threads (KryoNet, rendu de l'hôte) ne
+ * font que déposer des commandes dans une file sans verrou, traitées au début du
+ * tick suivant : ni course de données, ni verrou sur le chemin des diffusions.
+ * Les niveaux sont lus sur un thread à part, qui rend le résultat à la boucle par
+ * une commande : une salle qui charge ne retarde pas les ticks des autres.
  */
 public class GameServer {
+    // Salle rejointe par un client tant qu'il n'en a pas demandé une autre (PacketJoinRoom)
+    public static final String DEFAULT_ROOM = "default";
+    private static final int MAX_ROOM_NAME_LENGTH = 32;
+    private static final long BANDWIDTH_LOG_PERIOD_NANOS = 10_000_000_000L;
+    // Quelques ticks de paquets de nombreux clients : au-delà, KryoNet attend la boucle
+    private static final int COMMAND_QUEUE_CAPACITY = 4096;
 
     // 🔸 1. Attribut principal : le serveur réseau
     private Server server;
-    private Map<Integer, PacketPlayer> players = new HashMap<>();
-    private int expectedPlayers = 0;
-    private String lobbyLevelPath = null;
-    private boolean gameStarted = false;
-    private final ConcurrentHashMap<Integer, RestartAckState> pendingRestartAcks = new ConcurrentHashMap<>();
-    private final ScheduledExecutorService restartScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-        Thread t = new Thread(r, "RestartAckMonitor");
+    // Boucle de simulation seulement
+    private final Map<String, ServerRoom> rooms = new HashMap<>();
+    private final Map<Integer, ServerRoom> roomByConnection = new HashMap<>();
+    private final List<ServerRoom> roomsToTick = new ArrayList<>();
+    private long lastRestartCheck = System.nanoTime();
+    private long lastBandwidthLog = System.nanoTime();
+    // Publiés par la boucle pour les autres threads
+    private volatile int roomCount = 0;
+    private volatile float snapshotBytesPerSecondPerPlayer = 0f;
+
+    private final NetworkEventInbox<ServerCommand> commands =
+            new NetworkEventInbox<>(COMMAND_QUEUE_CAPACITY, ServerCommand::new);
+    private final Consumer<ServerCommand> commandHandler = this::handleCommand;
+    // Simulation des salles, avancée à pas fixe par son propre thread
+    private final ScheduledExecutorService simulationScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "ServerSimulation");
         t.setDaemon(true);
         return t;
     });
-    private volatile int currentRestartId = 0;
-    private volatile String pendingRestartLevel = null;
-    private static final long RESTART_RETRY_DELAY_MS = 1000L;
-    private static final int MAX_RESTART_ATTEMPTS = 5;
-
-    // Classe interne pour suivre l'état des accusés de réception de redémarrage
-    private static class RestartAckState {
-        final int restartId;
-        int attempts = 0;
-        long lastSendTime = 0L;
-        boolean acknowledged = false;
-
-        RestartAckState(int restartId) {
-            this.restartId = restartId;
-        }
-    }
+    // Lecture des niveaux des salles, hors de la boucle de simulation
+    private final ExecutorService levelParser = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "LevelParser");
+        t.setDaemon(true);
+        return t;
+    });
+    private final ServerRoom.LevelParser roomLevelParser = this::parseLevel;
 
     // 🔸 2. Constructeur : création et initialisation du serveur
     public GameServer() throws IOException {
         // Créer et démarrer le serveur
-        server = new Server();
+        server = new Server(Network.SERVER_WRITE_BUFFER_SIZE, Network.OBJECT_BUFFER_SIZE);
         Network.register(server);
         server.start();
 
         server.bind(Network.TCP_PORT, Network.UDP_PORT);
 
 
-        // Ajouter un Listener pour gérer les événements réseau
-        server.addListener(new Listener() {
+        // Ajouter un Listener qui transmet les événements réseau à la boucle de simulation
+        server.addListener(NetworkConditions.fromSystemProperties().wrap(new Listener() {
 
             /** Quand un client se connecte */
             @Override
             public void connected(Connection c) {
                 System.out.println("Client connecté : " + c.getID());
-
-                // créer un joueur par défaut
-                PacketPlayer p = new PacketPlayer(c.getID(), 0, 0, false);
-                players.put(c.getID(), p);
-
-                // envoyer l'état actuel aux autres
-                broadcastAllPlayers();
-                checkStartConditions();
+                post(ServerCommand.CONNECTED, c, null, null, null);
             }
 
             @Override
             public void received(Connection c, Object o) {
-
-                // le client envoie sa position et son état "dead"
-                if (o instanceof PacketPlayer pkt) {
-
-                    // mise à jour dans la liste serveur
-                    PacketPlayer p = players.get(c.getID());
-                    if (p != null) {
-                        p.x = pkt.x;
-                        p.y = pkt.y;
-                        p.dead = pkt.dead;
-                    }
-
-                    // renvoyer l'état de TOUS les joueurs à TOUS les clients
-                    broadcastAllPlayers();
-                    return;
-                }
-
-                // réception de la configuration du lobby
-                if (o instanceof PacketLobbyConfig config) {
-                    gameStarted = false;
-                    lobbyLevelPath = config.levelPath;
-                    expectedPlayers = Math.max(0, config.expectedPlayers);
-                    System.out.println("Configuration lobby reçue : " + lobbyLevelPath + " (" + expectedPlayers + " joueurs)");
-                    checkStartConditions();
-                    return;
-                }
-
-                if (o instanceof PacketDoorState doorState) {
-                    server.sendToAllTCP(doorState);
-                    return;
-                }
-
-                if (o instanceof PacketGameOver over) {
-                    server.sendToAllTCP(over);
-                    return;
-                }
-                if (o instanceof PacketRestartAck ack) {
-                    handleRestartAck(c.getID(), ack.restartId);
-                    return;
-                }
-
-                if (o instanceof PacketReturnToMenu returnToMenu) {
-                    handleReturnToMenu(returnToMenu);
-                    return;
-                }
+                post(ServerCommand.RECEIVED, c, o, null, null);
             }
 
             @Override
             public void disconnected(Connection c) {
                 System.out.println("Client déconnecté : " + c.getID());
-
-                players.remove(c.getID());
-                pendingRestartAcks.remove(c.getID());
-
-                PacketDisconnect pd = new PacketDisconnect();
-                pd.id = c.getID();
-
-                server.sendToAllTCP(pd);
-
-                if (gameStarted) 
-                {
-                    PacketReturnToMenu pkt = new PacketReturnToMenu();
-                    pkt.reason = "Un joueur s'est déconnecté.";
-                    handleReturnToMenu(pkt);
-                } else {
-                    checkStartConditions();
-                }
+                post(ServerCommand.DISCONNECTED, c, null, null, null);
             }
-        });
+        }));
 
-        // Démarrer la tâche périodique pour vérifier les accusés de réception de redémarrage
-        restartScheduler.scheduleAtFixedRate(this::checkPendingRestartAcks,
-                RESTART_RETRY_DELAY_MS,
-                RESTART_RETRY_DELAY_MS,
-                TimeUnit.MILLISECONDS);
+        // Ticks de simulation à fréquence fixe : commandes en attente, puis salles
+        simulationScheduler.scheduleAtFixedRate(this::tick,
+                0L,
+                1_000_000_000L / ServerWorld.TICK_HZ,
+                TimeUnit.NANOSECONDS);
 
         System.out.println("Serveur lancé sur le port " + Network.TCP_PORT);
     }
 
-    /**
-     * Envoie la liste complète des joueurs à tous les clients
-     */
-    private void broadcastAllPlayers() {
-
-        for (PacketPlayer p : players.values()) {
-            server.sendToAllTCP(p);
-        }
+    // Dépose une commande pour le prochain tick ; appelable depuis n'importe quel thread
+    private void post(int type, Connection connection, Object packet, String roomName, String text) {
+        long position = commands.claim();
+        if (position < 0) return; // serveur arrêté
+        ServerCommand command = commands.event(position);
+        command.type = type;
+        command.connection = connection;
+        command.packet = packet;
+        command.roomName = roomName;
+        command.text = text;
+        commands.publish(position);
     }
 
-    private void checkStartConditions() {
-        if (gameStarted) return;
-        if (lobbyLevelPath == null || lobbyLevelPath.isBlank()) return;
-        if (expectedPlayers <= 0) return;
-        if (players.size() >= expectedPlayers) {
-            startGame();
-        }
+    // Lit un niveau sur le thread LevelParser puis le rend à la salle au tick suivant (voir ServerRoom.levelLoaded)
+    private void parseLevel(ServerRoom room, int loadId, String levelPath) {
+        levelParser.execute(() -> {
+            LevelData level = LevelData.parse(levelPath);
+            long position = commands.claim();
+            if (position < 0) return; // serveur arrêté
+            ServerCommand command = commands.event(position);
+            command.type = ServerCommand.LEVEL_LOADED;
+            command.room = room;
+            command.loadId = loadId;
+            command.level = level;
+            commands.publish(position);
+        });
     }
 
-    private void startGame() {
-        if (gameStarted) return;
-        broadcastStartGame(lobbyLevelPath, expectedPlayers);
-    }
+    // 🔸 3. Boucle de simulation
 
-    private void resetLobby() {
-        gameStarted = false;
-        lobbyLevelPath = null;
-        expectedPlayers = 0;
-        pendingRestartAcks.clear();
-        pendingRestartLevel = null;
-    }
+    private void tick() {
+        try {
+            commands.drain(commandHandler);
 
-    // 3. Méthodes de diffusion et de gestion des paquets
-    private void broadcastStartGame(String levelPath, int playerCount) {
-        if (levelPath == null || levelPath.isBlank()) {
-            System.out.println("Impossible d'envoyer un démarrage : niveau inconnu.");
-            return;
+            // copie : une salle vidée par un tick (retour au menu) peut disparaître
+            roomsToTick.clear();
+            roomsToTick.addAll(rooms.values());
+            for (int i = 0; i < roomsToTick.size(); i++) {
+                roomsToTick.get(i).tick();
+            }
+
+            long now = System.nanoTime();
+            if (now - lastRestartCheck >= TimeUnit.MILLISECONDS.toNanos(ServerRoom.RESTART_RETRY_DELAY_MS)) {
+                lastRestartCheck = now;
+                for (int i = 0; i < roomsToTick.size(); i++) {
+                    roomsToTick.get(i).checkPendingRestartAcks();
+                }
+            }
+            publishStats(now);
+        } catch (RuntimeException e) {
+            // une exception arrêterait définitivement scheduleAtFixedRate
+            System.err.println("Erreur dans la boucle du serveur : " + e);
+            e.printStackTrace();
         }
-        PacketStartGame start = new PacketStartGame();
-        start.levelPath = levelPath;
-        start.playerCount = playerCount > 0 ? playerCount : players.size();
-        System.out.println("Démarrage de la partie sur " + start.levelPath + " pour " + start.playerCount + " joueurs.");
-        server.sendToAllTCP(start);
-        gameStarted = true;
     }
 
-    // Demander à tous les clients de redémarrer le jeu sur un niveau donné
-    private void broadcastRestartRequest(String levelPath) {
-        if (levelPath == null || levelPath.isBlank()) {
-            System.out.println("Impossible d'envoyer un redémarrage : niveau inconnu.");
-            return;
-        }
-        resetPlayersStateForRestart();
-        currentRestartId++;
-        pendingRestartLevel = levelPath;
-        pendingRestartAcks.clear();
-        Connection[] connections = server.getConnections();
-        long now = System.currentTimeMillis();
-        for (Connection conn : connections) {
-            RestartAckState state = new RestartAckState(currentRestartId);
-            state.attempts = 1;
-            state.lastSendTime = now;
-            pendingRestartAcks.put(conn.getID(), state);
-            sendRestartRequest(conn.getID(), levelPath, currentRestartId);
-        }
-        if (connections.length == 0) {
-            pendingRestartLevel = null;
-        } else {
-            System.out.println("Redémarrage demandé (" + connections.length + " clients) via requête #" + currentRestartId);
+    private void handleCommand(ServerCommand command) {
+        Connection c = command.connection;
+        switch (command.type) {
+            case ServerCommand.CONNECTED:
+                joinRoom(c, DEFAULT_ROOM);
+                break;
+            case ServerCommand.RECEIVED:
+                try {
+                    handlePacket(c, command.packet);
+                } finally {
+                    Network.free(command.packet);
+                }
+                break;
+            case ServerCommand.DISCONNECTED:
+                leaveRoom(c);
+                break;
+            case ServerCommand.RESTART:
+                handleRestart(command.roomName, command.text);
+                break;
+            case ServerCommand.RETURN_TO_MENU:
+                ServerRoom room = findRoom(command.roomName);
+                if (room == null) break;
+                PacketReturnToMenu pkt = new PacketReturnToMenu();
+                pkt.reason = command.text;
+                room.handleReturnToMenu(pkt);
+                break;
+            case ServerCommand.LEVEL_LOADED:
+                // une salle fermée entre-temps ignore son niveau (numéro de chargement périmé)
+                command.room.levelLoaded(command.loadId, command.level);
+                break;
+            default:
+                break;
         }
-        broadcastAllPlayers(); // diffuse l'état "vivant" remis à zéro
-        gameStarted = true;
     }
 
-    // Envoyer une requête de redémarrage à un client spécifique
-    private void sendRestartRequest(int connectionId, String levelPath, int restartId) {
-        if (levelPath == null || levelPath.isBlank()) {
+    private void handlePacket(Connection c, Object o) {
+        // changement de salle, avant la configuration du lobby ou l'attente de l'hôte
+        if (o instanceof PacketJoinRoom join) {
+            joinRoom(c, join.roomName);
             return;
         }
-        PacketRestartRequest request = new PacketRestartRequest();
-        request.levelPath = levelPath;
-        request.playerCount = expectedPlayers > 0 ? expectedPlayers : players.size();
-        request.restartId = restartId;
-        server.sendToTCP(connectionId, request);
-    }
 
-    // Gérer la réception d'un accusé de réception de redémarrage d'un client
-    private void handleRestartAck(int connectionId, int restartId) {
-        RestartAckState state = pendingRestartAcks.get(connectionId);
-        if (state == null) {
+        ServerRoom room = roomByConnection.get(c.getID());
+        if (room == null) return;
+
+        // le client envoie ses entrées ; le serveur en déduit sa position
+        if (o instanceof PacketPlayerInput input) {
+            room.receivePlayerInput(c, input);
             return;
         }
-        if (state.restartId != restartId) {
+
+        // réception de la configuration du lobby
+        if (o instanceof PacketLobbyConfig config) {
+            room.receiveLobbyConfig(config);
             return;
         }
-        pendingRestartAcks.remove(connectionId);
-        System.out.println("Confirmation de redémarrage #" + restartId + " reçue du client " + connectionId + ".");
-        if (pendingRestartAcks.isEmpty()) {
-            pendingRestartLevel = null;
-        }
-    }
 
-    // Vérifier périodiquement les accusés de réception de redémarrage en attente
-    private void checkPendingRestartAcks() {
-        if (pendingRestartAcks.isEmpty()) {
+        // Portes et fins de partie ne sont plus acceptées des clients : la simulation en décide
+        if (o instanceof PacketWorldEvents || o instanceof PacketGameOver) {
             return;
         }
-        if (pendingRestartLevel == null) {
-            pendingRestartAcks.clear();
+
+        if (o instanceof PacketRestartAck ack) {
+            room.receiveRestartAck(c.getID(), ack.restartId);
             return;
         }
-        long now = System.currentTimeMillis();
-        Iterator<Map.Entry<Integer, RestartAckState>> it = pendingRestartAcks.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry<Integer, RestartAckState> entry = it.next();
-            RestartAckState state = entry.getValue();
-            if (now - state.lastSendTime < RESTART_RETRY_DELAY_MS) {
-                continue;
-            }
-        if (state.attempts >= MAX_RESTART_ATTEMPTS) {
-            System.out.println("Client " + entry.getKey() + " n'a pas confirmé le redémarrage #" + state.restartId + " après " + state.attempts + " tentatives.");
-            it.remove();
-            continue;
-        }
-        sendRestartRequest(entry.getKey(), pendingRestartLevel, state.restartId);
-        state.lastSendTime = now;
-        state.attempts++;
+
+        if (o instanceof PacketReturnToMenu returnToMenu) {
+            room.handleReturnToMenu(returnToMenu);
         }
-        if (pendingRestartAcks.isEmpty()) {
-            pendingRestartLevel = null;
+    }
+
+    private void publishStats(long now) {
+        float bytesPerSecond = 0f;
+        int playerCount = 0;
+        for (ServerRoom room : rooms.values()) {
+            bytesPerSecond += room.getSnapshotBytesPerSecond();
+            playerCount += room.getPlayerCount();
         }
+        roomCount = rooms.size();
+        snapshotBytesPerSecondPerPlayer = playerCount > 0 ? bytesPerSecond / playerCount : 0f;
+
+        // Débit des instantanés, dans la console tant qu'il y a des joueurs
+        if (now - lastBandwidthLog < BANDWIDTH_LOG_PERIOD_NANOS) return;
+        lastBandwidthLog = now;
+        if (playerCount == 0) return;
+        System.out.printf("Instantanés : %.0f octets/s par joueur (%d joueurs, %d salles)%n",
+                snapshotBytesPerSecondPerPlayer, playerCount, rooms.size());
+    }
+
+    // 🔸 4. Salles (boucle de simulation seulement)
+
+    // Nom de salle saisi par un joueur : vide = salle par défaut, longueur bornée
+    public static String normalizeRoomName(String roomName) {
+        if (roomName == null || roomName.isBlank()) return DEFAULT_ROOM;
+        String trimmed = roomName.trim();
+        return trimmed.length() > MAX_ROOM_NAME_LENGTH ? trimmed.substring(0, MAX_ROOM_NAME_LENGTH) : trimmed;
     }
 
-    // Réinitialiser l'état "dead" de tous les joueurs avant un redémarrage
-    private void resetPlayersStateForRestart() {
-        for (PacketPlayer p : players.values()) {
-            p.dead = false;
+    private void joinRoom(Connection c, String roomName) {
+        String name = normalizeRoomName(roomName);
+        ServerRoom current = roomByConnection.get(c.getID());
+        if (current != null && current.getName().equals(name)) return;
+        leaveRoom(c);
+
+        ServerRoom room = rooms.computeIfAbsent(name, n -> new ServerRoom(n, roomLevelParser));
+        roomByConnection.put(c.getID(), room);
+        room.join(c);
+        System.out.println("Client " + c.getID() + " dans la salle " + name + " (" + room.getPlayerCount() + " joueurs, " + rooms.size() + " salles)");
+    }
+
+    private void leaveRoom(Connection c) {
+        ServerRoom room = roomByConnection.remove(c.getID());
+        if (room == null) return;
+        room.leave(c);
+        if (room.isEmpty()) {
+            rooms.remove(room.getName(), room);
+            room.stop();
         }
     }
 
-    // Méthode publique pour redémarrer le jeu sur un niveau donné ou le niveau du lobby
-    public void restartGame(String levelPath) {
-        String targetLevel = (levelPath != null && !levelPath.isBlank()) ? levelPath : lobbyLevelPath;
-        if (targetLevel == null || targetLevel.isBlank()) {
-            System.out.println("Impossible de redémarrer : aucun niveau actif.");
+    private ServerRoom findRoom(String roomName) {
+        return rooms.get(normalizeRoomName(roomName));
+    }
+
+    private void handleRestart(String roomName, String levelPath) {
+        ServerRoom room = findRoom(roomName);
+        if (room == null) {
+            System.out.println("Impossible de redémarrer : salle inconnue " + roomName);
             return;
         }
-        lobbyLevelPath = targetLevel;
-        broadcastRestartRequest(targetLevel);
+        room.restartGame(levelPath);
     }
 
-    // Gérer le retour au menu principal
-    private void handleReturnToMenu(PacketReturnToMenu pkt) {
-        server.sendToAllTCP(pkt);
-        resetLobby();
-        pendingRestartAcks.clear();
-        pendingRestartLevel = null;
-        currentRestartId = 0;
+    // 🔸 5. Méthodes publiques, appelables depuis n'importe quel thread (ex. le rendu de l'hôte)
+
+    // Redémarrer la partie d'une salle sur un niveau donné ou le niveau du lobby, au prochain tick
+    public void restartGame(String roomName, String levelPath) {
+        post(ServerCommand.RESTART, null, null, roomName, levelPath);
     }
 
-    public void broadcastReturnToMenu(String reason) {
-        PacketReturnToMenu pkt = new PacketReturnToMenu();
-        pkt.reason = reason;
-        handleReturnToMenu(pkt);
+    public void broadcastReturnToMenu(String roomName, String reason) {
+        post(ServerCommand.RETURN_TO_MENU, null, null, roomName, reason);
     }
-    // 🔸 4. Méthode de nettoyage : arrêter le serveur proprement
-    public void stop() {
-        restartScheduler.shutdownNow();
-        server.stop();
-        server.close();
-        System.out.println("🛑 Serveur arrêté.");
+
+    public int getRoomCount() {
+        return roomCount;
+    }
+
+    // Octets d'instantanés envoyés par seconde et par joueur, toutes salles confondues
+    public float getSnapshotBytesPerSecondPerPlayer() {
+        return snapshotBytesPerSecondPerPlayer;
     }
 
-    // 🔸 5. Point d’entrée principal
-    public static void main(String[] args) {
+    // 🔸 6. Méthode de nettoyage : arrêter le serveur proprement
+    public void stop() {
+        commands.close();
+        simulationScheduler.shutdownNow();
+        levelParser.shutdownNow();
         try {
-            new GameServer(); // créer et lancer le serveur
-        } catch (IOException e) {
-            e.printStackTrace();
+            // la boucle n'est plus appelée ; on attend la fin du tick en cours avant de tout arrêter
+            simulationScheduler.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+        for (ServerRoom room : rooms.values()) {
+            room.stop();
+        }
+        rooms.clear();
+        roomByConnection.clear();
+        server.stop();
+        server.close();
+        System.out.println("🛑 Serveur arrêté.");
     }
 }
@@ -1,5 +1,6 @@
 package com.github.herobrine.reseau;
 
+import com.esotericsoftware.kryonet.Connection;
 import com.esotericsoftware.kryonet.EndPoint;
 import com.esotericsoftware.kryo.Kryo;
 
@@ -10,12 +11,31 @@ import com.esotericsoftware.kryo.Kryo;
  * Gère la configuration réseau commune entre le client et le serveur :
  * - les ports TCP et UDP utilisés pour la communication
  * - l’enregistrement des classes (packets) pouvant être envoyées par KryoNet
+ * - le choix du canal : les entrées et positions (PacketPlayerInput, PacketWorldSnapshot) passent
+ *   par UDP, numérotées pour écarter les paquets périmés ; lobby, redémarrage,
+ *   portes (PacketWorldEvents) et fin de partie restent sur TCP
+ * - la taille des tampons de KryoNet et le format des paquets envoyés à chaque tick
+ *   (voir PacketSerializers)
  */
 public class Network {
     // 🔹 Ports réseau (doivent être identiques côté client et côté serveur)
     public static final int TCP_PORT = 54555;
     public static final int UDP_PORT = 54777;
 
+    // 🔹 Tampons KryoNet
+    // Plus gros paquet sérialisable : un instantané complet fait environ 12 octets par joueur,
+    // 4096 laisse de la marge pour des salles de plusieurs centaines de joueurs
+    public static final int OBJECT_BUFFER_SIZE = 4096;
+    // Par connexion côté serveur : des instantanés en attente d'un client lent en TCP ne
+    // doivent pas déborder (KryoNet fermerait la connexion)
+    public static final int SERVER_WRITE_BUFFER_SIZE = 32768;
+    // Le client n'envoie que ses entrées (une dizaine d'octets par tick) et quelques paquets de lobby
+    public static final int CLIENT_WRITE_BUFFER_SIZE = 8192;
+
+    // Identifiants Kryo fixes, identiques de part et d'autre quel que soit l'ordre d'enregistrement ;
+    // en dessous, les types de base de Kryo et les messages internes de KryoNet
+    private static final int FIRST_PACKET_ID = 20;
+
     /**
      * Méthode statique permettant d’enregistrer toutes les classes
      * de données (packets) qui seront échangées entre client et serveur.
@@ -23,18 +43,56 @@ public class Network {
      * @param endPoint : instance du Client ou du Server
      */
     public static void register(EndPoint endPoint) {
-        Kryo kryo = endPoint.getKryo();
-
-        // 🔹 Enregistrer ici toutes les classes de packets autorisées
-        kryo.register(PacketPlayer.class);
-        kryo.register(PacketDisconnect.class);
-        kryo.register(PacketLobbyConfig.class);
-        kryo.register(PacketStartGame.class);
-        kryo.register(PacketGameOver.class);
-        kryo.register(PacketDoorState.class);
-        kryo.register(PacketRestartRequest.class);
-        kryo.register(PacketRestartAck.class);
-        kryo.register(PacketReturnToMenu.class);
+        register(endPoint.getKryo());
+    }
+
+    static void register(Kryo kryo) {
+        // 🔹 Enregistrer ici toutes les classes de packets autorisées, à la suite (ne pas renuméroter)
+        int id = FIRST_PACKET_ID;
+        kryo.register(PacketPlayer.class, id++);
+        kryo.register(PacketDisconnect.class, id++);
+        kryo.register(PacketLobbyConfig.class, id++);
+        kryo.register(PacketStartGame.class, id++);
+        kryo.register(PacketGameOver.class, id++);
+        kryo.register(PacketWorldEvents.class, new PacketSerializers.WorldEventsSerializer(), id++);
+        kryo.register(PacketRestartRequest.class, id++);
+        kryo.register(PacketRestartAck.class, id++);
+        kryo.register(PacketReturnToMenu.class, id++);
+        kryo.register(PacketJoinRoom.class, id++);
+        kryo.register(PacketWorldSnapshot.class, new PacketSerializers.WorldSnapshotSerializer(), id++);
+        kryo.register(byte[].class, id++);
+        kryo.register(PacketPlayerInput.class, new PacketSerializers.PlayerInputSerializer(), id++);
+    }
+
+    /**
+     * Rend à sa réserve un paquet reçu, une fois traité (PacketPlayerInput, PacketWorldSnapshot) ;
+     * sans effet pour les autres. Le paquet ne doit plus être utilisé ensuite.
+     */
+    public static void free(Object packet) {
+        if (packet instanceof PacketPlayerInput input) {
+            PacketSerializers.INPUTS.free(input);
+        } else if (packet instanceof PacketWorldSnapshot snapshot) {
+            PacketSerializers.SNAPSHOTS.free(snapshot);
+        }
+    }
+
+    /**
+     * Envoi sur le canal non fiable : UDP, ou TCP si la connexion n'a pas de canal UDP.
+     * Le paquet peut être perdu ou arriver dans le désordre : le destinataire s'appuie
+     * sur sa séquence pour ignorer les paquets plus anciens que le dernier reçu.
+     *
+     * @return le nombre d'octets envoyés
+     */
+    public static int sendUnreliable(Connection connection, Object packet) {
+        try {
+            return connection.sendUDP(packet);
+        } catch (IllegalStateException e) {
+            return connection.sendTCP(packet);
+        }
+    }
 
+    // Vrai si la séquence a est postérieure à b, y compris après un débordement de l'entier
+    static boolean isNewer(int a, int b) {
+        return a - b > 0;
     }
 }
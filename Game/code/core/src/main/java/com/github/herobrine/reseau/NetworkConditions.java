@@ -0,0 +1,99 @@
+package com.github.herobrine.reseau;
+
+import com.esotericsoftware.kryonet.Connection;
+import com.esotericsoftware.kryonet.Listener;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulateur local de réseau dégradé, pour tester le jeu hors ligne.
+ * Enveloppe le Listener d'un client ou du serveur et agit à la réception :
+ * - les paquets de mouvement (canal UDP) sont perdus avec une probabilité donnée
+ *   et retardés d'une latence plus une gigue aléatoire (ils peuvent donc arriver
+ *   dans le désordre, comme en UDP) ;
+ * - les autres paquets (canal TCP) subissent la latence seule, sans perte ni
+ *   gigue, pour garder leur ordre.
+ * Une fois actif, il livre tous les paquets reçus depuis son propre thread.
+ *
+ * Réglé par propriétés système, inactif par défaut :
+ *   -Dherobrine.net.lossPercent=5 -Dherobrine.net.latencyMs=80 -Dherobrine.net.jitterMs=30
+ */
+public final class NetworkConditions {
+    private final float lossPercent;
+    private final int latencyMs;
+    private final int jitterMs;
+
+    public NetworkConditions(float lossPercent, int latencyMs, int jitterMs) {
+        this.lossPercent = Math.max(0f, Math.min(100f, lossPercent));
+        this.latencyMs = Math.max(0, latencyMs);
+        this.jitterMs = Math.max(0, jitterMs);
+    }
+
+    public static NetworkConditions fromSystemProperties() {
+        float loss = 0f;
+        try {
+            loss = Float.parseFloat(System.getProperty("herobrine.net.lossPercent", "0"));
+        } catch (NumberFormatException ignored) {
+            // valeur invalide : pas de perte
+        }
+        return new NetworkConditions(loss,
+                Integer.getInteger("herobrine.net.latencyMs", 0),
+                Integer.getInteger("herobrine.net.jitterMs", 0));
+    }
+
+    public boolean isActive() {
+        return lossPercent > 0f || latencyMs > 0 || jitterMs > 0;
+    }
+
+    // Paquets envoyés sur le canal non fiable (voir Network.sendUnreliable)
+    static boolean isUnreliable(Object packet) {
+        return packet instanceof PacketPlayerInput || packet instanceof PacketWorldSnapshot;
+    }
+
+    // Le listener tel quel si le simulateur est inactif, sinon une enveloppe qui perd et retarde
+    public Listener wrap(Listener listener) {
+        if (!isActive()) return listener;
+        System.out.println("Réseau simulé : " + lossPercent + "% de perte, " + latencyMs + " ms de latence, " + jitterMs + " ms de gigue");
+        ScheduledExecutorService delivery = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "NetworkConditions");
+            t.setDaemon(true);
+            return t;
+        });
+        return new Listener() {
+            @Override
+            public void connected(Connection c) {
+                listener.connected(c);
+            }
+
+            @Override
+            public void disconnected(Connection c) {
+                listener.disconnected(c);
+            }
+
+            @Override
+            public void idle(Connection c) {
+                listener.idle(c);
+            }
+
+            @Override
+            public void received(Connection c, Object o) {
+                long delay = latencyMs;
+                if (isUnreliable(o)) {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    if (random.nextFloat() * 100f < lossPercent) {
+                        Network.free(o); // paquet perdu : rendu à sa réserve comme s'il avait été traité
+                        return;
+                    }
+                    if (jitterMs > 0) delay += random.nextInt(jitterMs + 1);
+                }
+                // Toujours par le même thread, même sans retard : le listener ne voit jamais deux
+                // paquets à la fois (GameClient réserve ses instantanés à un seul thread réseau).
+                // Un paquet pris dans PacketPool n'y revient qu'une fois traité : livré plus tard, il reste intact.
+                delivery.schedule(() -> listener.received(c, o), delay, TimeUnit.MILLISECONDS);
+            }
+        };
+    }
+}
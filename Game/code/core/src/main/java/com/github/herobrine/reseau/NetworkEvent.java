@@ -0,0 +1,46 @@
+package com.github.herobrine.reseau;
+
+import java.util.function.Consumer;
+
+/**
+ * Événement reçu du serveur, à traiter par le thread de jeu (voir GameClient.drainEvents).
+ * Les objets appartiennent au pool de NetworkEventInbox : un événement n'est valable
+ * que pendant l'appel à Handler.onEvent, il ne faut pas le conserver.
+ */
+public final class NetworkEvent implements NetworkEventInbox.Slot {
+    public static final int START_GAME = 1;
+    public static final int GAME_OVER = 2;
+    public static final int DOOR_STATE = 3;
+    public static final int RESTART_REQUEST = 4;
+    public static final int RETURN_TO_MENU = 5;
+
+    public interface Handler extends Consumer<NetworkEvent> {
+        void onEvent(NetworkEvent event);
+
+        @Override
+        default void accept(NetworkEvent event) {
+            onEvent(event);
+        }
+    }
+
+    public int type;
+    public String levelPath;  // START_GAME, RESTART_REQUEST
+    public int playerCount;   // START_GAME, RESTART_REQUEST
+    public int restartId;     // RESTART_REQUEST
+    public String reason;     // GAME_OVER, RETURN_TO_MENU
+    public int doorId;        // DOOR_STATE
+    public boolean open;      // DOOR_STATE
+    public float elapsed;     // DOOR_STATE : secondes écoulées sur le serveur depuis le changement
+
+    @Override
+    public void clear() {
+        type = 0;
+        levelPath = null;
+        playerCount = 0;
+        restartId = 0;
+        reason = null;
+        doorId = 0;
+        open = false;
+        elapsed = 0f;
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.herobrine.reseau;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * File bornée sans verrou des événements réseau : plusieurs producteurs (thread
+ * KryoNet, thread du simulateur de réseau, thread de rendu de l'hôte), un seul
+ * consommateur (thread de jeu du client, ou boucle de simulation du serveur).
+ * Les événements sont préalloués, un par case, et réutilisés ; rien n'est alloué
+ * par événement, et ils sont traités dans leur ordre d'arrivée.
+ *
+ * Chaque case porte un numéro de séquence qui dit à qui elle appartient : égal à la
+ * position, elle est libre pour le producteur qui l'a réservée ; égal à position + 1,
+ * elle est publiée pour le consommateur, qui la rend au tour suivant (position + taille).
+ *
+ * Utilisation côté producteur :
+ *   long position = inbox.claim();
+ *   if (position < 0) return;  // file fermée
+ *   NetworkEvent event = inbox.event(position);
+ *   ... remplir event ...
+ *   inbox.publish(position);
+ */
+final class NetworkEventInbox<E extends NetworkEventInbox.Slot> {
+    static final int DEFAULT_CAPACITY = 256;
+
+    // Contenu d'une case, vidé après traitement pour ne retenir aucun paquet
+    interface Slot {
+        void clear();
+    }
+
+    private final Slot[] events;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head = 0; // consommateur seul
+    private volatile boolean closed = false;
+
+    NetworkEventInbox(int capacity, Supplier<E> factory) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("La capacité doit être une puissance de 2 : " + capacity);
+        }
+        events = new Slot[capacity];
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            events[i] = factory.get();
+            sequences.set(i, i);
+        }
+        mask = capacity - 1;
+    }
+
+    /**
+     * Réserve une case. Si la file est pleine, attend que le thread de jeu en libère une
+     * plutôt que de perdre l'événement. Retourne -1 une fois la file fermée.
+     */
+    long claim() {
+        while (!closed) {
+            long position = tail.get();
+            long diff = sequences.get((int) (position & mask)) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) return position;
+            } else if (diff < 0) {
+                Thread.yield(); // pleine : le consommateur n'a pas encore rendu cette case
+            }
+            // diff > 0 : un autre producteur vient de la prendre, on relit tail
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    E event(long position) {
+        return (E) events[(int) (position & mask)];
+    }
+
+    void publish(long position) {
+        sequences.set((int) (position & mask), position + 1);
+    }
+
+    /**
+     * Traite, dans l'ordre, tous les événements publiés. S'arrête si la file est fermée
+     * pendant le traitement (retour au menu, client arrêté).
+     * Si le handler lève une exception, l'événement est tout de même consommé avant
+     * qu'elle remonte : il ne sera pas retraité indéfiniment par les appels suivants.
+     */
+    @SuppressWarnings("unchecked")
+    void drain(Consumer<? super E> handler) {
+        while (!closed) {
+            int index = (int) (head & mask);
+            if (sequences.get(index) != head + 1) return;
+            Slot event = events[index];
+            try {
+                handler.accept((E) event);
+            } finally {
+                event.clear();
+                sequences.set(index, head + events.length);
+                head++;
+            }
+        }
+    }
+
+    // Libère les producteurs en attente ; les événements restants sont abandonnés
+    void close() {
+        closed = true;
+    }
+}
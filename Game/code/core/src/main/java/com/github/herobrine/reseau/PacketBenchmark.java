@@ -0,0 +1,139 @@
+package com.github.herobrine.reseau;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.github.herobrine.AllocationMeter;
+
+import java.util.Arrays;
+
+/**
+ * Mesure de la sérialisation des paquets envoyés à chaque tick : octets par paquet, temps
+ * d'encodage et de décodage, octets alloués par décodage. Compare l'enregistrement de
+ * Network.register (sérialiseurs de PacketSerializers, paquets reçus pris en réserve)
+ * au FieldSerializer par défaut de Kryo, configuré comme KryoNet le configure.
+ *
+ * En ligne de commande (tâche Gradle :core:benchmarkPackets) :
+ *   PacketBenchmark [joueurs]   nombre de joueurs des instantanés (8 par défaut)
+ */
+public final class PacketBenchmark {
+    private static final int WARMUP_OPS = 200_000;
+    private static final int MEASURED_OPS = 1_000_000;
+
+    private PacketBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int players = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+
+        Kryo tuned = newKryo();
+        Network.register(tuned);
+        Kryo fields = newKryo();
+        for (Class<?> type : new Class<?>[]{PacketWorldEvents.class, int[].class, boolean[].class, PacketWorldSnapshot.class, byte[].class, PacketPlayerInput.class}) {
+            fields.register(type);
+        }
+
+        PacketPlayerInput input = new PacketPlayerInput();
+        input.sequence = 123_456;
+        input.inputs = new byte[]{2, 2, 6, 2};
+        input.snapshotAck = 40_000;
+
+        SnapshotCodec.Frame base = new SnapshotCodec.Frame();
+        SnapshotCodec.Frame frame = new SnapshotCodec.Frame();
+        base.reset(40_000);
+        frame.reset(40_001);
+        for (int i = 0; i < players; i++) {
+            int x = SnapshotCodec.quantize(300f + i * 90f);
+            int y = SnapshotCodec.quantize(120f);
+            base.add(i + 1, x, y, false);
+            frame.add(i + 1, x + 3, i % 2 == 0 ? y : y + 5, false);
+        }
+        PacketWorldSnapshot delta = snapshot(frame, base);
+        PacketWorldSnapshot full = snapshot(frame, null);
+
+        // deux portes changent pendant le même tick
+        PacketWorldEvents doors = new PacketWorldEvents();
+        doors.tick = 80_002;
+        doors.doorCount = 2;
+        doors.doorIds[0] = 3;
+        doors.doorOpen[0] = true;
+        doors.doorIds[1] = 7;
+        doors.doorOpen[1] = false;
+
+        System.out.println(players + " joueurs par instantané, " + MEASURED_OPS + " opérations mesurées");
+        System.out.println("paquet                 sérialiseur   octets  encodage ns/op  décodage ns/op  alloué o/décodage");
+        run("entrées", input, tuned, fields);
+        run("instantané (delta)", delta, tuned, fields);
+        run("instantané (complet)", full, tuned, fields);
+        run("portes (lot de 2)", doors, tuned, fields);
+    }
+
+    // Comme KryoSerialization de KryoNet : ni références, ni classe non enregistrée
+    private static Kryo newKryo() {
+        Kryo kryo = new Kryo();
+        kryo.setReferences(false);
+        kryo.setRegistrationRequired(true);
+        return kryo;
+    }
+
+    // Instantané tel qu'envoyé par ServerRoom, état propre du membre compris
+    private static PacketWorldSnapshot snapshot(SnapshotCodec.Frame frame, SnapshotCodec.Frame base) {
+        SnapshotCodec.ByteWriter writer = new SnapshotCodec.ByteWriter();
+        frame.encode(base, writer);
+        PacketWorldSnapshot snapshot = new PacketWorldSnapshot();
+        snapshot.tick = 80_002;
+        snapshot.automateTick = 79_500;
+        snapshot.sequence = frame.sequence;
+        snapshot.baseSequence = base != null ? base.sequence : SnapshotCodec.NO_BASELINE;
+        snapshot.data = Arrays.copyOf(writer.buffer, writer.length);
+        snapshot.dataLength = writer.length;
+        snapshot.hasOwnState = true;
+        snapshot.inputAck = 123_450;
+        snapshot.ownX = 301.25f;
+        snapshot.ownY = 120f;
+        snapshot.ownVy = -4.5f;
+        snapshot.ownOnGround = false;
+        return snapshot;
+    }
+
+    private static void run(String label, Object packet, Kryo tuned, Kryo fields) {
+        measure(label, "compact", packet, tuned);
+        measure("", "champs", packet, fields);
+    }
+
+    private static void measure(String label, String serializer, Object packet, Kryo kryo) {
+        Output output = new Output(Network.OBJECT_BUFFER_SIZE);
+        Input input = new Input();
+
+        for (int i = 0; i < WARMUP_OPS; i++) {
+            output.clear();
+            kryo.writeClassAndObject(output, packet);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_OPS; i++) {
+            output.clear();
+            kryo.writeClassAndObject(output, packet);
+        }
+        long encodeNanos = System.nanoTime() - start;
+        int bytes = output.position();
+
+        // les paquets reçus sont rendus comme le font GameServer et GameClient
+        input.setBuffer(output.getBuffer(), 0, bytes);
+        for (int i = 0; i < WARMUP_OPS; i++) {
+            input.setPosition(0);
+            Network.free(kryo.readClassAndObject(input));
+        }
+        long startBytes = AllocationMeter.currentThreadAllocatedBytes();
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED_OPS; i++) {
+            input.setPosition(0);
+            Network.free(kryo.readClassAndObject(input));
+        }
+        long decodeNanos = System.nanoTime() - start;
+        long allocated = AllocationMeter.currentThreadAllocatedBytes() - startBytes;
+
+        System.out.printf("%-22s %-12s %6d  %14.1f  %14.1f  %17s%n",
+            label, serializer, bytes, encodeNanos / (double) MEASURED_OPS, decodeNanos / (double) MEASURED_OPS,
+            AllocationMeter.isSupported() ? String.format("%.1f", allocated / (double) MEASURED_OPS) : "-");
+    }
+}
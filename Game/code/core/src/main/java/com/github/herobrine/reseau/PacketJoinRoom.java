@@ -0,0 +1,9 @@
+package com.github.herobrine.reseau;
+
+/**
+ * Demande d'un client pour rejoindre (ou créer) une salle du serveur.
+ * À envoyer juste après la connexion, avant la configuration du lobby.
+ */
+public class PacketJoinRoom {
+    public String roomName;
+}
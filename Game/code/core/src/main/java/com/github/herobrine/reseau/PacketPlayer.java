@@ -6,6 +6,9 @@ public class PacketPlayer {
     public float y;     
     public boolean dead;
     public int id;
+    // Côté serveur : numéro du dernier PacketPlayerInput accepté et son accusé d'instantané
+    public int sequence;
+    public int snapshotAck = SnapshotCodec.NO_BASELINE;
 
     public PacketPlayer() {}
 
@@ -0,0 +1,14 @@
+package com.github.herobrine.reseau;
+
+/**
+ * Entrées du joueur local (bits Joueur.INPUT_*), une par tick, envoyées par UDP.
+ * inputs contient les dernières entrées, la plus récente portant le numéro sequence
+ * et les précédentes sequence - 1, sequence - 2... : un paquet perdu est rattrapé
+ * par le suivant.
+ */
+public class PacketPlayerInput {
+    public int sequence;
+    public byte[] inputs;
+    // Dernier instantané (PacketWorldSnapshot.sequence) reçu par le client, référence des prochains deltas
+    public int snapshotAck = SnapshotCodec.NO_BASELINE;
+}
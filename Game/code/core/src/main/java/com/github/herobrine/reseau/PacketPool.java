@@ -0,0 +1,32 @@
+package com.github.herobrine.reseau;
+
+import java.util.ArrayDeque;
+import java.util.function.Supplier;
+
+/**
+ * Réserve bornée de paquets reçus, pour que la désérialisation n'alloue plus à chaque paquet.
+ * Les paquets sont lus sur le thread de KryoNet et rendus par celui qui les traite
+ * (boucle du serveur, thread réseau ou simulateur du client) : d'où les méthodes
+ * synchronisées, sans contention en pratique.
+ */
+final class PacketPool<T> {
+    private final ArrayDeque<T> free;
+    private final int maxSize;
+    private final Supplier<T> factory;
+
+    PacketPool(int maxSize, Supplier<T> factory) {
+        this.free = new ArrayDeque<>(maxSize);
+        this.maxSize = maxSize;
+        this.factory = factory;
+    }
+
+    synchronized T obtain() {
+        T packet = free.pollLast();
+        return packet != null ? packet : factory.get();
+    }
+
+    // Un paquet rendu ne doit plus être lu : il sera réécrit par le prochain paquet reçu
+    synchronized void free(T packet) {
+        if (free.size() < maxSize) free.addLast(packet);
+    }
+}
@@ -0,0 +1,131 @@
+package com.github.herobrine.reseau;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Sérialiseurs écrits à la main pour les paquets envoyés à chaque tick, à la place du
+ * FieldSerializer par défaut de Kryo (qui écrit chaque int et chaque float en entier et
+ * passe par la réflexion) : entiers en varint, booléens regroupés en un octet d'options.
+ * Les paquets reçus sont pris dans une réserve ; le destinataire les rend par Network.free.
+ */
+final class PacketSerializers {
+    private static final int POOL_SIZE = 64;
+    // Bits de l'octet d'options de PacketWorldSnapshot
+    private static final int OWN_STATE = 1;
+    private static final int OWN_ON_GROUND = 2;
+
+    static final PacketPool<PacketPlayerInput> INPUTS = new PacketPool<>(POOL_SIZE, PacketPlayerInput::new);
+    static final PacketPool<PacketWorldSnapshot> SNAPSHOTS = new PacketPool<>(POOL_SIZE, PacketWorldSnapshot::new);
+
+    private PacketSerializers() {
+    }
+
+    /** sequence, nombre d'entrées puis un octet par entrée (bits Joueur.INPUT_*), snapshotAck */
+    static final class PlayerInputSerializer extends Serializer<PacketPlayerInput> {
+        @Override
+        public void write(Kryo kryo, Output output, PacketPlayerInput packet) {
+            output.writeVarInt(packet.sequence, true);
+            int count = packet.inputs != null ? packet.inputs.length : 0;
+            output.writeVarInt(count, true);
+            if (count > 0) output.writeBytes(packet.inputs, 0, count);
+            output.writeVarInt(packet.snapshotAck, false); // NO_BASELINE = -1 tient sur un octet
+        }
+
+        @Override
+        public PacketPlayerInput read(Kryo kryo, Input input, Class<PacketPlayerInput> type) {
+            PacketPlayerInput packet = INPUTS.obtain();
+            packet.sequence = input.readVarInt(true);
+            int count = input.readVarInt(true);
+            if (count > ClientPrediction.HISTORY_SIZE) throw new IllegalArgumentException("Trop d'entrées : " + count);
+            if (packet.inputs == null || packet.inputs.length != count) packet.inputs = new byte[count];
+            input.readBytes(packet.inputs, 0, count);
+            packet.snapshotAck = input.readVarInt(false);
+            return packet;
+        }
+    }
+
+    /** tick, tick des automates, séquences, données SnapshotCodec précédées de leur longueur, puis l'état propre du membre s'il y en a un */
+    static final class WorldSnapshotSerializer extends Serializer<PacketWorldSnapshot> {
+        @Override
+        public void write(Kryo kryo, Output output, PacketWorldSnapshot packet) {
+            output.writeVarInt(packet.tick, true);
+            output.writeVarInt(packet.automateTick, true);
+            output.writeVarInt(packet.sequence, true);
+            output.writeVarInt(packet.baseSequence, false);
+            output.writeVarInt(packet.dataLength, true);
+            if (packet.dataLength > 0) output.writeBytes(packet.data, 0, packet.dataLength);
+            int flags = (packet.hasOwnState ? OWN_STATE : 0) | (packet.ownOnGround ? OWN_ON_GROUND : 0);
+            output.writeByte(flags);
+            if (packet.hasOwnState) {
+                output.writeVarInt(packet.inputAck, true);
+                output.writeFloat(packet.ownX);
+                output.writeFloat(packet.ownY);
+                output.writeFloat(packet.ownVy);
+            }
+        }
+
+        @Override
+        public PacketWorldSnapshot read(Kryo kryo, Input input, Class<PacketWorldSnapshot> type) {
+            PacketWorldSnapshot packet = SNAPSHOTS.obtain();
+            packet.tick = input.readVarInt(true);
+            packet.automateTick = input.readVarInt(true);
+            packet.sequence = input.readVarInt(true);
+            packet.baseSequence = input.readVarInt(false);
+            int length = input.readVarInt(true);
+            if (length > Network.OBJECT_BUFFER_SIZE) throw new IllegalArgumentException("Instantané trop grand : " + length);
+            // le tableau est gardé d'un paquet à l'autre : seuls les dataLength premiers octets comptent
+            if (packet.data == null || packet.data.length < length) packet.data = new byte[Math.max(length, 64)];
+            input.readBytes(packet.data, 0, length);
+            packet.dataLength = length;
+            int flags = input.readByte();
+            packet.hasOwnState = (flags & OWN_STATE) != 0;
+            packet.ownOnGround = (flags & OWN_ON_GROUND) != 0;
+            if (packet.hasOwnState) {
+                packet.inputAck = input.readVarInt(true);
+                packet.ownX = input.readFloat();
+                packet.ownY = input.readFloat();
+                packet.ownVy = input.readFloat();
+            } else {
+                packet.inputAck = 0;
+                packet.ownX = 0f;
+                packet.ownY = 0f;
+                packet.ownVy = 0f;
+            }
+            return packet;
+        }
+    }
+
+    /** tick, nombre de portes, puis pour chacune doorId en varint, l'état dans le bit de poids faible */
+    static final class WorldEventsSerializer extends Serializer<PacketWorldEvents> {
+        @Override
+        public void write(Kryo kryo, Output output, PacketWorldEvents packet) {
+            output.writeVarInt(packet.tick, true);
+            output.writeVarInt(packet.doorCount, true);
+            for (int i = 0; i < packet.doorCount; i++) {
+                output.writeVarInt((packet.doorIds[i] << 1) | (packet.doorOpen[i] ? 1 : 0), true);
+            }
+        }
+
+        @Override
+        public PacketWorldEvents read(Kryo kryo, Input input, Class<PacketWorldEvents> type) {
+            PacketWorldEvents packet = new PacketWorldEvents();
+            packet.tick = input.readVarInt(true);
+            int count = input.readVarInt(true);
+            if (count > Network.OBJECT_BUFFER_SIZE) throw new IllegalArgumentException("Trop d'événements : " + count);
+            if (count > packet.doorIds.length) {
+                packet.doorIds = new int[count];
+                packet.doorOpen = new boolean[count];
+            }
+            for (int i = 0; i < count; i++) {
+                int value = input.readVarInt(true);
+                packet.doorIds[i] = value >> 1;
+                packet.doorOpen[i] = (value & 1) != 0;
+            }
+            packet.doorCount = count;
+            return packet;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.github.herobrine.reseau;
+
+/**
+ * Événements du niveau survenus pendant un tick de la simulation du serveur, envoyés
+ * en un seul paquet TCP à la fin du tick : pour l'instant les changements d'état des
+ * portes, au plus un par porte (le dernier du tick) et seulement s'il diffère du
+ * dernier état diffusé. tick permet au client de recaler la minuterie d'une porte
+ * ouverte d'après le temps écoulé depuis son ouverture.
+ */
+public class PacketWorldEvents {
+    public int tick;
+    public int doorCount;
+    public int[] doorIds = new int[4];
+    public boolean[] doorOpen = new boolean[4];
+}
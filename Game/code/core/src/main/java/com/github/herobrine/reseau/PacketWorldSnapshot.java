@@ -0,0 +1,27 @@
+package com.github.herobrine.reseau;
+
+/**
+ * État de tous les joueurs d'une salle, envoyé par le serveur à chaque membre
+ * à fréquence fixe, en un seul paquet. Le contenu est encodé par SnapshotCodec :
+ * positions quantifiées, en delta contre l'instantané baseSequence que le client
+ * a déjà accusé (SnapshotCodec.NO_BASELINE = instantané complet).
+ * Chaque membre reçoit aussi l'état exact de son propre joueur et la dernière
+ * entrée que le serveur a appliquée, pour réconcilier sa prédiction (ClientPrediction).
+ * automateTick compte les pas des automates depuis le chargement du niveau : le client
+ * y place ses creepers au lieu de les faire avancer de son côté.
+ */
+public class PacketWorldSnapshot {
+    public int tick;
+    public int automateTick;
+    public int sequence;
+    public int baseSequence;
+    public byte[] data;
+    public int dataLength; // octets utiles de data, qui peut être plus grand (tampon réutilisé)
+
+    public boolean hasOwnState;
+    public int inputAck;
+    public float ownX;
+    public float ownY;
+    public float ownVy;
+    public boolean ownOnGround;
+}
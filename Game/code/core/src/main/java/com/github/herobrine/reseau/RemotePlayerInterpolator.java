@@ -0,0 +1,173 @@
+package com.github.herobrine.reseau;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+
+/**
+ * Positions des joueurs distants, affichées avec un léger retard pour être lissées.
+ * Chaque joueur garde un tampon circulaire de ses derniers états, datés par le tick
+ * serveur de l'instantané qui les a apportés. L'affichage se fait à l'heure serveur
+ * estimée moins un délai (interpolationDelay) : il y a presque toujours deux états
+ * qui encadrent cet instant, entre lesquels on interpole. Faute d'état plus récent
+ * (paquets perdus ou en retard), on extrapole à vitesse constante, sur une durée bornée.
+ *
+ * N'est utilisé que par le thread de rendu : les instantanés lui arrivent du thread
+ * réseau par l'échange de tables de GameClient. Rien n'est alloué en régime établi.
+ */
+final class RemotePlayerInterpolator {
+    static final float DEFAULT_DELAY_SECONDS = 0.1f;
+    static final float MAX_EXTRAPOLATION_SECONDS = 0.1f;
+    private static final int TRACK_CAPACITY = 32;
+    // Écart d'horloge : suit vite un paquet en avance, lentement un paquet en retard
+    private static final double CLOCK_DRIFT_RATE = 0.01;
+    // Au-delà, l'heure serveur a sauté (changement de salle) : on repart de zéro
+    private static final double CLOCK_RESET_SECONDS = 1.0;
+
+    private static final class Track {
+        int id;
+        final double[] times = new double[TRACK_CAPACITY];
+        final float[] x = new float[TRACK_CAPACITY];
+        final float[] y = new float[TRACK_CAPACITY];
+        final boolean[] dead = new boolean[TRACK_CAPACITY];
+        int head = -1; // dernier état écrit
+        int count = 0;
+        int lastSequence;
+
+        void add(double time, float px, float py, boolean isDead) {
+            if (count > 0 && time <= times[head]) {
+                // même tick (instantané immédiat puis périodique) : on remplace
+                x[head] = px;
+                y[head] = py;
+                dead[head] = isDead;
+                return;
+            }
+            head = (head + 1) % TRACK_CAPACITY;
+            times[head] = time;
+            x[head] = px;
+            y[head] = py;
+            dead[head] = isDead;
+            if (count < TRACK_CAPACITY) count++;
+        }
+
+        // i-ème état en partant du plus récent (0 = dernier)
+        int index(int fromNewest) {
+            return Math.floorMod(head - fromNewest, TRACK_CAPACITY);
+        }
+    }
+
+    private final IntMap<Track> tracks = new IntMap<>();
+    // Tampons des joueurs partis, réutilisés pour les prochains arrivants
+    private final Array<Track> freeTracks = new Array<>();
+    private volatile float interpolationDelay = DEFAULT_DELAY_SECONDS;
+    private boolean clockSynced = false;
+    // heure locale - heure serveur, en secondes
+    private double clockOffset = 0.0;
+    private int sequence = 0;
+
+    void setInterpolationDelay(float seconds) {
+        interpolationDelay = Math.max(0f, seconds);
+    }
+
+    float getInterpolationDelay() {
+        return interpolationDelay;
+    }
+
+    // Ajoute un instantané reçu ; il fait foi pour la liste, les joueurs absents sont oubliés
+    void push(RemotePlayerTable snapshot) {
+        syncClock(snapshot.serverTick, snapshot.receivedNanos / 1e9);
+        sequence++;
+        double time = (double) snapshot.serverTick / ServerWorld.TICK_HZ;
+        for (int i = 0; i < snapshot.count; i++) {
+            Track track = tracks.get(snapshot.ids[i]);
+            if (track == null) {
+                track = freeTracks.isEmpty() ? new Track() : freeTracks.pop();
+                track.id = snapshot.ids[i];
+                track.head = -1;
+                track.count = 0;
+                tracks.put(track.id, track);
+            }
+            track.add(time, snapshot.x[i], snapshot.y[i], snapshot.dead[i]);
+            track.lastSequence = sequence;
+        }
+        IntMap.Values<Track> values = tracks.values();
+        while (values.hasNext()) {
+            Track track = values.next();
+            if (track.lastSequence != sequence) {
+                values.remove();
+                freeTracks.add(track);
+            }
+        }
+    }
+
+    private void syncClock(int serverTick, double receivedTime) {
+        double serverTime = (double) serverTick / ServerWorld.TICK_HZ;
+        double sample = receivedTime - serverTime;
+        if (!clockSynced || Math.abs(sample - clockOffset) > CLOCK_RESET_SECONDS) {
+            clockOffset = sample;
+            clockSynced = true;
+        } else if (sample < clockOffset) {
+            clockOffset = sample;
+        } else {
+            clockOffset += (sample - clockOffset) * CLOCK_DRIFT_RATE;
+        }
+    }
+
+    void clear() {
+        IntMap.Values<Track> values = tracks.values();
+        while (values.hasNext()) freeTracks.add(values.next());
+        tracks.clear();
+        clockSynced = false;
+    }
+
+    /**
+     * Remplit out avec la position affichée de chaque joueur distant à l'instant présent.
+     */
+    void sample(RemotePlayerTable out) {
+        out.clear();
+        double renderTime = localTime() - clockOffset - interpolationDelay;
+        IntMap.Values<Track> values = tracks.values();
+        while (values.hasNext()) {
+            Track track = values.next();
+            if (track.count > 0) sample(track, renderTime, out);
+        }
+    }
+
+    private static void sample(Track track, double renderTime, RemotePlayerTable out) {
+        int newest = track.index(0);
+        if (renderTime >= track.times[newest]) {
+            // pas d'état plus récent : extrapolation bornée à partir des deux derniers
+            float px = track.x[newest];
+            float py = track.y[newest];
+            if (track.count >= 2) {
+                int previous = track.index(1);
+                double span = track.times[newest] - track.times[previous];
+                double ahead = Math.min(renderTime - track.times[newest], MAX_EXTRAPOLATION_SECONDS);
+                float t = (float) (ahead / span);
+                px += (track.x[newest] - track.x[previous]) * t;
+                py += (track.y[newest] - track.y[previous]) * t;
+            }
+            out.add(track.id, px, py, track.dead[newest]);
+            return;
+        }
+        // plus récent vers plus ancien : premier état daté avant renderTime
+        for (int i = 1; i < track.count; i++) {
+            int from = track.index(i);
+            if (track.times[from] <= renderTime) {
+                int to = track.index(i - 1);
+                float t = (float) ((renderTime - track.times[from]) / (track.times[to] - track.times[from]));
+                out.add(track.id,
+                        track.x[from] + (track.x[to] - track.x[from]) * t,
+                        track.y[from] + (track.y[to] - track.y[from]) * t,
+                        track.dead[from]);
+                return;
+            }
+        }
+        // plus ancien que tout le tampon : premier état connu
+        int oldest = track.index(track.count - 1);
+        out.add(track.id, track.x[oldest], track.y[oldest], track.dead[oldest]);
+    }
+
+    private static double localTime() {
+        return System.nanoTime() / 1e9;
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.herobrine.reseau;
+
+import java.util.Arrays;
+
+/**
+ * Table d'états de joueurs distants en tableaux parallèles (l'entrée i décrit le
+ * joueur ids[i]), allouée une fois et réutilisée : elle ne grandit que lorsqu'une
+ * salle dépasse le nombre de joueurs déjà vu.
+ *
+ * Sert à passer les instantanés du thread réseau au thread de rendu (voir
+ * GameClient) et à donner au Joueur les positions affichées à chaque frame.
+ */
+public final class RemotePlayerTable {
+    public int count;
+    public int[] ids = new int[8];
+    public float[] x = new float[8];
+    public float[] y = new float[8];
+    public boolean[] dead = new boolean[8];
+
+    // Renseignés par le thread réseau pour l'échange entre threads
+    int serverTick;
+    long receivedNanos;
+    boolean published;
+
+    public void clear() {
+        count = 0;
+    }
+
+    public void add(int id, float px, float py, boolean isDead) {
+        if (count == ids.length) grow(count * 2);
+        ids[count] = id;
+        x[count] = px;
+        y[count] = py;
+        dead[count] = isDead;
+        count++;
+    }
+
+    public void copyFrom(RemotePlayerTable other) {
+        if (ids.length < other.count) grow(other.count);
+        System.arraycopy(other.ids, 0, ids, 0, other.count);
+        System.arraycopy(other.x, 0, x, 0, other.count);
+        System.arraycopy(other.y, 0, y, 0, other.count);
+        System.arraycopy(other.dead, 0, dead, 0, other.count);
+        count = other.count;
+    }
+
+    private void grow(int size) {
+        ids = Arrays.copyOf(ids, size);
+        x = Arrays.copyOf(x, size);
+        y = Arrays.copyOf(y, size);
+        dead = Arrays.copyOf(dead, size);
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.herobrine.reseau;
+
+import com.esotericsoftware.kryonet.Connection;
+import com.github.herobrine.LevelData;
+
+/**
+ * Commande pour la boucle de simulation du serveur : un événement KryoNet
+ * (connexion, paquet reçu, déconnexion), une demande de l'hôte (redémarrage,
+ * retour au menu) ou un niveau lu en arrière-plan pour une salle. Case réutilisée de la file de GameServer.
+ */
+final class ServerCommand implements NetworkEventInbox.Slot {
+    static final int CONNECTED = 1;
+    static final int RECEIVED = 2;
+    static final int DISCONNECTED = 3;
+    static final int RESTART = 4;
+    static final int RETURN_TO_MENU = 5;
+    static final int LEVEL_LOADED = 6;
+
+    int type;
+    Connection connection; // CONNECTED, RECEIVED, DISCONNECTED
+    Object packet;         // RECEIVED
+    String roomName;       // RESTART, RETURN_TO_MENU
+    String text;           // RESTART : niveau ; RETURN_TO_MENU : raison
+    ServerRoom room;       // LEVEL_LOADED
+    int loadId;            // LEVEL_LOADED
+    LevelData level;       // LEVEL_LOADED
+
+    @Override
+    public void clear() {
+        type = 0;
+        connection = null;
+        packet = null;
+        roomName = null;
+        text = null;
+        room = null;
+        loadId = 0;
+        level = null;
+    }
+}
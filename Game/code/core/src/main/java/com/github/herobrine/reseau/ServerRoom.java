@@ -0,0 +1,480 @@
+package com.github.herobrine.reseau;
+
+import com.esotericsoftware.kryonet.Connection;
+import com.github.herobrine.LevelData;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * 🔹 Classe ServerRoom
+ * ------------------------------
+ * Une partie hébergée par le GameServer : son niveau, ses joueurs, son état de
+ * redémarrage et sa simulation. Les paquets ne sont diffusés qu'aux membres de
+ * la salle, directement sur leurs connexions : le coût d'une diffusion dépend
+ * de la taille de la salle, pas du nombre total de clients du serveur.
+ * Comme sa simulation, une salle n'est utilisée que par la boucle de GameServer.
+ * Le niveau d'un démarrage ou d'un redémarrage est lu hors de cette boucle
+ * (LevelParser) : la partie ne démarre qu'à son retour, dans levelLoaded().
+ */
+public class ServerRoom {
+    static final long RESTART_RETRY_DELAY_MS = 1000L;
+    private static final int MAX_RESTART_ATTEMPTS = 5;
+    // Un instantané des joueurs tous les N ticks de simulation (30 par seconde à 60 Hz),
+    // quelle que soit la fréquence à laquelle les clients envoient leur position
+    static final int SNAPSHOT_INTERVAL_TICKS = 2;
+    // Plus grande séquence d'instantané envoyée, toutes salles confondues (boucle du serveur seulement).
+    // Une vue créée ensuite part au-delà : le client, qui ignore un instantané moins récent que
+    // le dernier reçu, accepte ceux de sa nouvelle salle, et un accusé venu de l'ancienne ne
+    // désigne rien dans l'historique neuf de la vue.
+    private static int highestSnapshotSequence = 0;
+
+    // Lecture d'un niveau hors de la boucle, rendu ensuite par levelLoaded(loadId, ...)
+    interface LevelParser {
+        void parse(ServerRoom room, int loadId, String levelPath);
+    }
+
+    private final String name;
+    private final LevelParser levelParser;
+    // Numéro du dernier chargement demandé : un niveau rendu sous un autre numéro est périmé
+    private int loadId = 0;
+    private String loadingLevel = null; // niveau en cours de lecture, null sinon
+    private boolean loadingForRestart = false;
+    private final Map<Integer, Connection> members = new HashMap<>();
+    private final Map<Integer, PacketPlayer> players = new HashMap<>();
+    private int expectedPlayers = 0;
+    private String lobbyLevelPath = null;
+    private boolean gameStarted = false;
+    private final Map<Integer, RestartAckState> pendingRestartAcks = new HashMap<>();
+    private int currentRestartId = 0;
+    private String pendingRestartLevel = null;
+    private int tickCount = 0;
+    // Réutilisés d'un envoi à l'autre : Kryo sérialise le paquet pendant sendTCP
+    private final PacketWorldSnapshot snapshot = new PacketWorldSnapshot();
+    // Changements de portes du tick en cours, envoyés en un lot à la fin du tick
+    private final PacketWorldEvents worldEvents = new PacketWorldEvents();
+    // Dernier état diffusé de chaque porte : un état déjà connu des membres n'est pas renvoyé
+    private final Map<Integer, Boolean> broadcastDoorStates = new HashMap<>();
+    // État courant de tous les joueurs, puis ce qu'en voit chaque membre (zone d'intérêt)
+    private final SnapshotCodec.Frame worldFrame = new SnapshotCodec.Frame();
+    private final Map<Integer, SnapshotView> views = new HashMap<>();
+    private final SnapshotCodec.ByteWriter snapshotWriter = new SnapshotCodec.ByteWriter();
+    // Débit des instantanés, mesuré par fenêtres d'une seconde
+    private long snapshotBytes = 0L;
+    private long bandwidthWindowStart = System.nanoTime();
+    private float snapshotBytesPerSecond = 0f;
+
+    // Simulation autoritaire du niveau de la salle
+    private final ServerWorld world = new ServerWorld(new ServerWorld.Listener() {
+        @Override
+        public void onDoorStateChanged(int doorId, boolean open) {
+            queueDoorState(doorId, open);
+        }
+
+        @Override
+        public void onGameOver(String reason) {
+            handleWorldGameOver(reason);
+        }
+    });
+
+    // Classe interne pour suivre l'état des accusés de réception de redémarrage
+    private static class RestartAckState {
+        final int restartId;
+        int attempts = 0;
+        long lastSendTime = 0L;
+
+        RestartAckState(int restartId) {
+            this.restartId = restartId;
+        }
+    }
+
+    public ServerRoom(String name, LevelParser levelParser) {
+        this.name = name;
+        this.levelParser = levelParser;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isEmpty() {
+        return members.isEmpty();
+    }
+
+    public int getPlayerCount() {
+        return members.size();
+    }
+
+    // 🔸 Arrivée et départ des membres
+
+    public void join(Connection c) {
+        members.put(c.getID(), c);
+
+        // créer un joueur par défaut
+        players.put(c.getID(), new PacketPlayer(c.getID(), 0, 0, false));
+        views.put(c.getID(), new SnapshotView(highestSnapshotSequence + 1));
+        world.addPlayer(c.getID());
+
+        // envoyer l'état actuel aux autres
+        broadcastSnapshot(true);
+        checkStartConditions();
+    }
+
+    public void leave(Connection c) {
+        if (members.remove(c.getID()) == null) return;
+        players.remove(c.getID());
+        views.remove(c.getID());
+        world.removePlayer(c.getID());
+        pendingRestartAcks.remove(c.getID());
+
+        PacketDisconnect pd = new PacketDisconnect();
+        pd.id = c.getID();
+        sendToRoomTCP(pd);
+
+        if (gameStarted) {
+            PacketReturnToMenu pkt = new PacketReturnToMenu();
+            pkt.reason = "Un joueur s'est déconnecté.";
+            handleReturnToMenu(pkt);
+        } else {
+            // démarrage en cours de chargement : on attend de nouveau tous les joueurs
+            if (!loadingForRestart) cancelLevelLoad();
+            checkStartConditions();
+        }
+    }
+
+    // 🔸 Paquets reçus d'un membre
+
+    // Entrées mises en file pour la simulation ; la diffusion se fait au prochain instantané (voir tick).
+    // Arrivé par UDP, un paquet plus ancien que le dernier reçu est ignoré.
+    public void receivePlayerInput(Connection c, PacketPlayerInput pkt) {
+        PacketPlayer p = players.get(c.getID());
+        if (p != null && Network.isNewer(pkt.sequence, p.sequence)) {
+            p.sequence = pkt.sequence;
+            p.snapshotAck = pkt.snapshotAck;
+            world.queueInputs(c.getID(), pkt.sequence, pkt.inputs);
+        }
+    }
+
+    public void receiveLobbyConfig(PacketLobbyConfig config) {
+        cancelLevelLoad(); // le niveau d'une configuration précédente ne démarrera pas
+        gameStarted = false;
+        lobbyLevelPath = config.levelPath;
+        expectedPlayers = Math.max(0, config.expectedPlayers);
+        System.out.println("[" + name + "] Configuration lobby reçue : " + lobbyLevelPath + " (" + expectedPlayers + " joueurs)");
+        checkStartConditions();
+    }
+
+    // Gérer la réception d'un accusé de réception de redémarrage d'un client
+    public void receiveRestartAck(int connectionId, int restartId) {
+        RestartAckState state = pendingRestartAcks.get(connectionId);
+        if (state == null) {
+            return;
+        }
+        if (state.restartId != restartId) {
+            return;
+        }
+        pendingRestartAcks.remove(connectionId);
+        System.out.println("[" + name + "] Confirmation de redémarrage #" + restartId + " reçue du client " + connectionId + ".");
+        if (pendingRestartAcks.isEmpty()) {
+            pendingRestartLevel = null;
+        }
+    }
+
+    // Gérer le retour au menu principal
+    public void handleReturnToMenu(PacketReturnToMenu pkt) {
+        sendToRoomTCP(pkt);
+        resetLobby();
+        currentRestartId = 0;
+    }
+
+    // 🔸 Diffusion, limitée aux membres de la salle
+
+    void sendToRoomTCP(Object packet) {
+        for (Connection c : members.values()) {
+            c.sendTCP(packet);
+        }
+    }
+
+    private void sendToMemberTCP(int connectionId, Object packet) {
+        Connection c = members.get(connectionId);
+        if (c != null) c.sendTCP(packet);
+    }
+
+    /**
+     * Envoie l'état de tous les joueurs à tous les membres, en un seul paquet par membre.
+     * L'état "dead" est celui de la simulation. Chaque membre reçoit sa vue (SnapshotView :
+     * joueurs lointains rafraîchis moins souvent) en delta contre le dernier instantané
+     * qu'il a accusé, ou un instantané complet s'il n'est plus conservé.
+     * Les instantanés périodiques passent par UDP ; ceux qui doivent précéder un paquet
+     * TCP (arrivée, fin de partie, redémarrage) sont envoyés en TCP (reliable), à jour
+     * pour tous les joueurs.
+     */
+    private void broadcastSnapshot(boolean reliable) {
+        worldFrame.reset(tickCount);
+        for (PacketPlayer p : players.values()) {
+            world.copyPlayer(p.id, p);
+            worldFrame.add(p.id, SnapshotCodec.quantize(p.x), SnapshotCodec.quantize(p.y), p.dead);
+        }
+
+        snapshot.tick = tickCount;
+        snapshot.automateTick = world.getAutomateTick();
+        for (Connection c : members.values()) {
+            PacketPlayer member = players.get(c.getID());
+            SnapshotView view = views.get(c.getID());
+            if (member == null || view == null) continue;
+            int sequence = view.nextSequence();
+            if (Network.isNewer(sequence, highestSnapshotSequence)) highestSnapshotSequence = sequence;
+            SnapshotCodec.Frame frame = view.build(sequence, worldFrame, c.getID(), reliable);
+            // après build : une référence dont l'emplacement vient d'être réutilisé n'est plus rendue
+            SnapshotCodec.Frame base = view.history.get(member.snapshotAck);
+            snapshotWriter.clear();
+            frame.encode(base, snapshotWriter);
+            snapshot.sequence = sequence;
+            snapshot.baseSequence = base != null ? base.sequence : SnapshotCodec.NO_BASELINE;
+            snapshot.data = snapshotWriter.buffer;
+            snapshot.dataLength = snapshotWriter.length;
+            snapshot.hasOwnState = world.copyCorrection(c.getID(), snapshot);
+            snapshotBytes += reliable ? c.sendTCP(snapshot) : Network.sendUnreliable(c, snapshot);
+        }
+    }
+
+    // Un seul changement par porte et par tick : le dernier l'emporte
+    private void queueDoorState(int doorId, boolean open) {
+        for (int i = 0; i < worldEvents.doorCount; i++) {
+            if (worldEvents.doorIds[i] == doorId) {
+                worldEvents.doorOpen[i] = open;
+                return;
+            }
+        }
+        if (worldEvents.doorCount == worldEvents.doorIds.length) {
+            worldEvents.doorIds = Arrays.copyOf(worldEvents.doorIds, worldEvents.doorCount * 2);
+            worldEvents.doorOpen = Arrays.copyOf(worldEvents.doorOpen, worldEvents.doorCount * 2);
+        }
+        worldEvents.doorIds[worldEvents.doorCount] = doorId;
+        worldEvents.doorOpen[worldEvents.doorCount] = open;
+        worldEvents.doorCount++;
+    }
+
+    // Envoie les changements du tick qui diffèrent du dernier état diffusé, en un seul paquet
+    private void flushWorldEvents() {
+        int kept = 0;
+        for (int i = 0; i < worldEvents.doorCount; i++) {
+            int doorId = worldEvents.doorIds[i];
+            boolean open = worldEvents.doorOpen[i];
+            Boolean previous = broadcastDoorStates.put(doorId, open);
+            if (previous != null ? previous == open : !open) continue; // fermée au chargement
+            worldEvents.doorIds[kept] = doorId;
+            worldEvents.doorOpen[kept] = open;
+            kept++;
+        }
+        worldEvents.doorCount = kept;
+        if (kept > 0) {
+            worldEvents.tick = tickCount;
+            sendToRoomTCP(worldEvents);
+        }
+        worldEvents.doorCount = 0;
+    }
+
+    // Niveau (re)chargé : portes fermées partout, rien à diffuser de l'ancien niveau
+    private void clearWorldEvents() {
+        worldEvents.doorCount = 0;
+        broadcastDoorStates.clear();
+    }
+
+    private void updateBandwidth() {
+        long now = System.nanoTime();
+        float seconds = (now - bandwidthWindowStart) / 1e9f;
+        if (seconds < 1f) return;
+        snapshotBytesPerSecond = snapshotBytes / seconds;
+        snapshotBytes = 0L;
+        bandwidthWindowStart = now;
+    }
+
+    // Octets d'instantanés envoyés par seconde à l'ensemble des membres, sur la dernière seconde
+    public float getSnapshotBytesPerSecond() {
+        return snapshotBytesPerSecond;
+    }
+
+    // 🔸 Démarrage, fin et redémarrage de la partie
+
+    private void checkStartConditions() {
+        if (gameStarted || loadingLevel != null) return;
+        if (lobbyLevelPath == null || lobbyLevelPath.isBlank()) return;
+        if (expectedPlayers <= 0) return;
+        if (players.size() >= expectedPlayers) {
+            startGame();
+        }
+    }
+
+    private void startGame() {
+        if (gameStarted) return;
+        if (lobbyLevelPath == null || lobbyLevelPath.isBlank()) {
+            System.out.println("[" + name + "] Impossible d'envoyer un démarrage : niveau inconnu.");
+            return;
+        }
+        requestLevel(lobbyLevelPath, false);
+    }
+
+    // Demande la lecture d'un niveau ; un chargement déjà en cours est abandonné
+    private void requestLevel(String levelPath, boolean forRestart) {
+        loadId++;
+        loadingLevel = levelPath;
+        loadingForRestart = forRestart;
+        levelParser.parse(this, loadId, levelPath);
+    }
+
+    // Oublie le chargement en cours : son niveau sera ignoré à son retour
+    private void cancelLevelLoad() {
+        loadId++;
+        loadingLevel = null;
+    }
+
+    /**
+     * Niveau lu par le LevelParser, rendu par la boucle de GameServer : installé dans
+     * la simulation, puis démarrage ou redémarrage envoyé aux membres.
+     */
+    void levelLoaded(int loadId, LevelData level) {
+        if (loadId != this.loadId || loadingLevel == null) return;
+        loadingLevel = null;
+        world.load(level);
+        clearWorldEvents();
+        if (loadingForRestart) {
+            broadcastRestartRequest(level.getLevelPath());
+        } else {
+            sendStartGame(level.getLevelPath());
+        }
+    }
+
+    private void sendStartGame(String levelPath) {
+        PacketStartGame start = new PacketStartGame();
+        start.levelPath = levelPath;
+        start.playerCount = expectedPlayers > 0 ? expectedPlayers : players.size();
+        System.out.println("[" + name + "] Démarrage de la partie sur " + start.levelPath + " pour " + start.playerCount + " joueurs.");
+        sendToRoomTCP(start);
+        gameStarted = true;
+    }
+
+    private void resetLobby() {
+        cancelLevelLoad();
+        world.stop();
+        clearWorldEvents();
+        gameStarted = false;
+        lobbyLevelPath = null;
+        expectedPlayers = 0;
+        pendingRestartAcks.clear();
+        pendingRestartLevel = null;
+    }
+
+    // Fin de partie décidée par la simulation : état des joueurs puis raison, à tous les membres
+    private void handleWorldGameOver(String reason) {
+        flushWorldEvents(); // portes du tick final avant la fin de partie
+        broadcastSnapshot(true);
+        PacketGameOver over = new PacketGameOver();
+        over.reason = reason;
+        sendToRoomTCP(over);
+        System.out.println("[" + name + "] Fin de partie : " + reason);
+    }
+
+    // Redémarrer la partie sur un niveau donné ou le niveau du lobby
+    public void restartGame(String levelPath) {
+        String targetLevel = (levelPath != null && !levelPath.isBlank()) ? levelPath : lobbyLevelPath;
+        if (targetLevel == null || targetLevel.isBlank()) {
+            System.out.println("[" + name + "] Impossible de redémarrer : aucun niveau actif.");
+            return;
+        }
+        lobbyLevelPath = targetLevel;
+        requestLevel(targetLevel, true);
+    }
+
+    // Demander à tous les membres de redémarrer le jeu sur un niveau donné, déjà installé dans la simulation
+    private void broadcastRestartRequest(String levelPath) {
+        resetPlayersStateForRestart();
+        currentRestartId++;
+        pendingRestartLevel = levelPath;
+        pendingRestartAcks.clear();
+        long now = System.currentTimeMillis();
+        for (Connection conn : members.values()) {
+            RestartAckState state = new RestartAckState(currentRestartId);
+            state.attempts = 1;
+            state.lastSendTime = now;
+            pendingRestartAcks.put(conn.getID(), state);
+            sendRestartRequest(conn.getID(), levelPath, currentRestartId);
+        }
+        if (members.isEmpty()) {
+            pendingRestartLevel = null;
+        } else {
+            System.out.println("[" + name + "] Redémarrage demandé (" + members.size() + " clients) via requête #" + currentRestartId);
+        }
+        broadcastSnapshot(true); // diffuse l'état "vivant" remis à zéro
+        gameStarted = true;
+    }
+
+    // Envoyer une requête de redémarrage à un membre
+    private void sendRestartRequest(int connectionId, String levelPath, int restartId) {
+        if (levelPath == null || levelPath.isBlank()) {
+            return;
+        }
+        PacketRestartRequest request = new PacketRestartRequest();
+        request.levelPath = levelPath;
+        request.playerCount = expectedPlayers > 0 ? expectedPlayers : players.size();
+        request.restartId = restartId;
+        sendToMemberTCP(connectionId, request);
+    }
+
+    // Vérifier périodiquement les accusés de réception de redémarrage en attente
+    void checkPendingRestartAcks() {
+        if (pendingRestartAcks.isEmpty()) {
+            return;
+        }
+        if (pendingRestartLevel == null) {
+            pendingRestartAcks.clear();
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Integer, RestartAckState>> it = pendingRestartAcks.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, RestartAckState> entry = it.next();
+            RestartAckState state = entry.getValue();
+            if (now - state.lastSendTime < RESTART_RETRY_DELAY_MS) {
+                continue;
+            }
+            if (state.attempts >= MAX_RESTART_ATTEMPTS) {
+                System.out.println("[" + name + "] Client " + entry.getKey() + " n'a pas confirmé le redémarrage #" + state.restartId + " après " + state.attempts + " tentatives.");
+                it.remove();
+                continue;
+            }
+            sendRestartRequest(entry.getKey(), pendingRestartLevel, state.restartId);
+            state.lastSendTime = now;
+            state.attempts++;
+        }
+        if (pendingRestartAcks.isEmpty()) {
+            pendingRestartLevel = null;
+        }
+    }
+
+    // Réinitialiser l'état "dead" de tous les joueurs avant un redémarrage
+    private void resetPlayersStateForRestart() {
+        for (PacketPlayer p : players.values()) {
+            p.dead = false;
+        }
+    }
+
+    // Un tick de la simulation de la salle, puis l'instantané des joueurs quand c'est son tour
+    void tick() {
+        // les portes et l'instantané de ce tick portent le même numéro
+        tickCount++;
+        world.tick();
+        flushWorldEvents();
+        if (tickCount % SNAPSHOT_INTERVAL_TICKS == 0 && !members.isEmpty()) {
+            broadcastSnapshot(false);
+        }
+        updateBandwidth();
+    }
+
+    void stop() {
+        cancelLevelLoad();
+        world.stop();
+    }
+}
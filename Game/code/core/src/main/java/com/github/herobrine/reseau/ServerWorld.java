@@ -0,0 +1,208 @@
+package com.github.herobrine.reseau;
+
+import com.github.herobrine.Carte;
+import com.github.herobrine.Joueur;
+import com.github.herobrine.LevelData;
+import com.github.herobrine.Porte;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Simulation du niveau côté serveur, sans aucune texture (Carte sans rendu).
+ * Le serveur y fait avancer automates et minuteries de portes à pas fixe, et
+ * déplace les joueurs en rejouant les entrées envoyées par les clients avec le
+ * même Joueur.step qu'eux : il est seul juge des positions, des morts, de la
+ * victoire et de l'état des portes. Les clients ne font plus qu'afficher et prédire.
+ *
+ * Un client ne peut pas avancer plus vite que le serveur : chaque tick donne droit
+ * à une entrée par joueur, avec une petite réserve pour absorber la gigue du réseau.
+ *
+ * N'est utilisée que par la boucle de simulation du serveur (voir GameServer) :
+ * les entrées reçues par KryoNet y arrivent sous forme de commandes, sans verrou.
+ */
+public class ServerWorld {
+    public static final int TICK_HZ = 60;
+    public static final float TICK_STEP = 1f / TICK_HZ;
+    private static final int SPAWN_GRID_X = 5;
+    private static final int INPUT_QUEUE_SIZE = 64;
+    // Entrées rattrapables d'un coup après un retard du réseau ou un paquet groupant plusieurs ticks
+    // (voir GameClient.MIN_INPUT_SEND_HZ)
+    private static final int MAX_INPUT_CREDITS = 6;
+
+    public interface Listener {
+        void onDoorStateChanged(int doorId, boolean open);
+        void onGameOver(String reason);
+    }
+
+    private final Carte carte = new Carte();
+    // Un joueur simulé et la file des entrées reçues de son client
+    private static final class PlayerSlot {
+        Joueur joueur;
+        final int[] queue = new int[INPUT_QUEUE_SIZE];
+        final int[] queueSequences = new int[INPUT_QUEUE_SIZE]; // une entrée perdue laisse un trou
+        int queueStart = 0;
+        int queueSize = 0;
+        int lastQueued = 0;    // numéro de la dernière entrée mise en file
+        int lastProcessed = 0; // numéro de la dernière entrée appliquée, renvoyé en accusé
+        int credits = 0;
+
+        void clearInputs() {
+            queueSize = 0;
+            queueStart = 0;
+            credits = 0;
+        }
+    }
+
+    private final Map<Integer, PlayerSlot> joueurs = new HashMap<>();
+    private final Listener listener;
+    private String levelPath = null;
+    private boolean running = false;
+    // Pas des automates depuis le chargement du niveau, envoyé aux clients dans les instantanés
+    private int automateTick = 0;
+
+    public ServerWorld(Listener listener) {
+        this.listener = listener;
+        carte.setDoorStateNotifier(listener::onDoorStateChanged);
+    }
+
+    // Installe (ou réinstalle) un niveau déjà lu et replace tous les joueurs au point de départ
+    public void load(LevelData level) {
+        carte.create(level);
+        this.levelPath = level.getLevelPath();
+        automateTick = 0;
+        for (PlayerSlot slot : joueurs.values()) {
+            slot.joueur = spawn();
+            slot.clearInputs();
+        }
+        running = true;
+        System.out.println("Niveau simulé par le serveur : " + levelPath + " (" + carte.getMapWidthTiles() + " colonnes)");
+    }
+
+    public void stop() {
+        running = false;
+        levelPath = null;
+        carte.clear();
+    }
+
+    public void addPlayer(int id) {
+        PlayerSlot slot = new PlayerSlot();
+        slot.joueur = spawn();
+        joueurs.put(id, slot);
+    }
+
+    public void removePlayer(int id) {
+        joueurs.remove(id);
+    }
+
+    /**
+     * Met en file les entrées d'un PacketPlayerInput : inputs[inputs.length - 1] porte le
+     * numéro newestSequence, les précédentes les numéros d'avant. Celles déjà reçues sont ignorées.
+     */
+    public void queueInputs(int id, int newestSequence, byte[] inputs) {
+        PlayerSlot slot = joueurs.get(id);
+        if (slot == null || inputs == null || !running) return;
+        for (int i = 0; i < inputs.length; i++) {
+            int sequence = newestSequence - (inputs.length - 1 - i);
+            if (!Network.isNewer(sequence, slot.lastQueued)) continue;
+            if (slot.queueSize == INPUT_QUEUE_SIZE) {
+                // client trop en avance : on oublie la plus ancienne
+                slot.queueStart = (slot.queueStart + 1) % INPUT_QUEUE_SIZE;
+                slot.queueSize--;
+            }
+            int index = (slot.queueStart + slot.queueSize) % INPUT_QUEUE_SIZE;
+            slot.queue[index] = inputs[i];
+            slot.queueSequences[index] = sequence;
+            slot.queueSize++;
+            slot.lastQueued = sequence;
+        }
+    }
+
+    public boolean isDead(int id) {
+        PlayerSlot slot = joueurs.get(id);
+        return slot != null && slot.joueur.isDead();
+    }
+
+    // Position et état "dead" du joueur id, copiés dans out ; faux si le joueur est inconnu
+    public boolean copyPlayer(int id, PacketPlayer out) {
+        PlayerSlot slot = joueurs.get(id);
+        if (slot == null) return false;
+        out.x = slot.joueur.getX();
+        out.y = slot.joueur.getY();
+        out.dead = slot.joueur.isDead();
+        return true;
+    }
+
+    // État de mouvement du joueur id et dernière entrée appliquée, pour la réconciliation du client
+    public boolean copyCorrection(int id, PacketWorldSnapshot out) {
+        PlayerSlot slot = joueurs.get(id);
+        if (slot == null) return false;
+        out.inputAck = slot.lastProcessed;
+        out.ownX = slot.joueur.getX();
+        out.ownY = slot.joueur.getY();
+        out.ownVy = slot.joueur.getVy();
+        out.ownOnGround = slot.joueur.isOnGround();
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public String getLevelPath() {
+        return levelPath;
+    }
+
+    public int getAutomateTick() {
+        return automateTick;
+    }
+
+    /**
+     * Un tick de simulation : chaque joueur vivant applique ses entrées en attente
+     * (dans la limite de ses crédits), automates et portes avancent une fois, puis
+     * chaque joueur est confronté aux automates proches. La première fin de partie
+     * détectée arrête la simulation jusqu'au prochain chargement.
+     */
+    public void tick() {
+        if (!running) return;
+        for (PlayerSlot slot : joueurs.values()) {
+            slot.credits = Math.min(slot.credits + 1, MAX_INPUT_CREDITS);
+            while (slot.credits > 0 && slot.queueSize > 0) {
+                int input = slot.queue[slot.queueStart];
+                slot.lastProcessed = slot.queueSequences[slot.queueStart];
+                slot.queueStart = (slot.queueStart + 1) % INPUT_QUEUE_SIZE;
+                slot.queueSize--;
+                slot.credits--;
+                if (!slot.joueur.isDead()) slot.joueur.update(input, TICK_STEP, carte);
+            }
+        }
+        carte.stepAutomates(TICK_STEP);
+        automateTick++;
+
+        for (PlayerSlot slot : joueurs.values()) {
+            Joueur joueur = slot.joueur;
+            if (joueur.isDead()) continue;
+
+            String reason = null;
+            if (carte.collide(joueur) || joueur.getY() < 1) {
+                joueur.setDead(true);
+                reason = "Un joueur est mort.";
+            } else if (joueur.getX() + joueur.getWidth() >= carte.getMapWidth()) {
+                reason = "Victoire !";
+            }
+
+            if (reason != null) {
+                running = false;
+                listener.onGameOver(reason);
+                return;
+            }
+        }
+    }
+
+    private Joueur spawn() {
+        if (levelPath == null) return new Joueur(0, 0);
+        Joueur joueur = new Joueur(carte.getTile() * SPAWN_GRID_X, carte.getGroundYAtGridX(SPAWN_GRID_X));
+        joueur.setDead(false);
+        return joueur;
+    }
+}
@@ -0,0 +1,199 @@
+package com.github.herobrine.reseau;
+
+import com.github.herobrine.Carte;
+
+import java.util.Arrays;
+
+/**
+ * Encodage compact des instantanés de joueurs.
+ * Les positions sont quantifiées en virgule fixe sur la grille des tuiles
+ * (POSITION_STEPS_PER_TILE pas par tuile), puis chaque instantané est écrit en
+ * delta contre un instantané de référence déjà reçu par le client (son dernier
+ * accusé) : un joueur immobile ne coûte que son id et un octet de drapeaux.
+ *
+ * Format de Frame.encode, entiers en varint :
+ *   nombre de joueurs, puis pour chacun : id, drapeaux, [dx], [dy]
+ *   drapeaux : bit 0 = mort, bit 1 = x présent, bit 2 = y présent
+ *   dx, dy : écart zigzag avec la position de référence (0 si joueur absent de la référence)
+ */
+final class SnapshotCodec {
+    static final int POSITION_STEPS_PER_TILE = 64;
+    // Instantanés conservés de part et d'autre pour servir de référence
+    static final int HISTORY_SIZE = 32;
+    static final int NO_BASELINE = -1;
+
+    private static final int FLAG_DEAD = 1;
+    private static final int FLAG_X = 1 << 1;
+    private static final int FLAG_Y = 1 << 2;
+
+    private SnapshotCodec() {
+    }
+
+    static int quantize(float position) {
+        return Math.round(position * POSITION_STEPS_PER_TILE / Carte.TILE);
+    }
+
+    static float dequantize(int quantized) {
+        return (float) quantized * Carte.TILE / POSITION_STEPS_PER_TILE;
+    }
+
+    /** État quantifié de tous les joueurs pour une séquence donnée */
+    static final class Frame {
+        int sequence = NO_BASELINE;
+        int count;
+        int[] ids = new int[8];
+        int[] x = new int[8];
+        int[] y = new int[8];
+        boolean[] dead = new boolean[8];
+
+        void reset(int sequence) {
+            this.sequence = sequence;
+            count = 0;
+        }
+
+        void add(int id, int qx, int qy, boolean isDead) {
+            if (count == ids.length) {
+                int size = count * 2;
+                ids = Arrays.copyOf(ids, size);
+                x = Arrays.copyOf(x, size);
+                y = Arrays.copyOf(y, size);
+                dead = Arrays.copyOf(dead, size);
+            }
+            ids[count] = id;
+            x[count] = qx;
+            y[count] = qy;
+            dead[count] = isDead;
+            count++;
+        }
+
+        void copyFrom(Frame other) {
+            reset(other.sequence);
+            for (int i = 0; i < other.count; i++) {
+                add(other.ids[i], other.x[i], other.y[i], other.dead[i]);
+            }
+        }
+
+        int indexOf(int id) {
+            for (int i = 0; i < count; i++) {
+                if (ids[i] == id) return i;
+            }
+            return -1;
+        }
+
+        // Écrit cet instantané en delta contre base (null = instantané complet)
+        void encode(Frame base, ByteWriter out) {
+            out.writeVarInt(count);
+            for (int i = 0; i < count; i++) {
+                int b = base != null ? base.indexOf(ids[i]) : -1;
+                int baseX = b >= 0 ? base.x[b] : 0;
+                int baseY = b >= 0 ? base.y[b] : 0;
+                int flags = dead[i] ? FLAG_DEAD : 0;
+                if (x[i] != baseX) flags |= FLAG_X;
+                if (y[i] != baseY) flags |= FLAG_Y;
+                out.writeVarInt(ids[i]);
+                out.writeByte(flags);
+                if ((flags & FLAG_X) != 0) out.writeVarInt(zigzag(x[i] - baseX));
+                if ((flags & FLAG_Y) != 0) out.writeVarInt(zigzag(y[i] - baseY));
+            }
+        }
+
+        // Reconstruit l'instantané à partir de data et de sa référence (null = complet)
+        void decode(int sequence, Frame base, ByteReader in) {
+            reset(sequence);
+            int n = in.readVarInt();
+            for (int i = 0; i < n; i++) {
+                int id = in.readVarInt();
+                int flags = in.readByte();
+                int b = base != null ? base.indexOf(id) : -1;
+                int qx = b >= 0 ? base.x[b] : 0;
+                int qy = b >= 0 ? base.y[b] : 0;
+                if ((flags & FLAG_X) != 0) qx += unzigzag(in.readVarInt());
+                if ((flags & FLAG_Y) != 0) qy += unzigzag(in.readVarInt());
+                add(id, qx, qy, (flags & FLAG_DEAD) != 0);
+            }
+        }
+    }
+
+    /** Derniers instantanés, rangés par séquence modulo HISTORY_SIZE */
+    static final class History {
+        private final Frame[] frames = new Frame[HISTORY_SIZE];
+
+        History() {
+            for (int i = 0; i < HISTORY_SIZE; i++) frames[i] = new Frame();
+        }
+
+        // Emplacement à remplir pour une nouvelle séquence ; écrase la plus ancienne
+        Frame slot(int sequence) {
+            Frame frame = frames[Math.floorMod(sequence, HISTORY_SIZE)];
+            frame.reset(sequence);
+            return frame;
+        }
+
+        // L'instantané de cette séquence s'il est encore conservé, sinon null
+        Frame get(int sequence) {
+            if (sequence == NO_BASELINE) return null;
+            Frame frame = frames[Math.floorMod(sequence, HISTORY_SIZE)];
+            return frame.sequence == sequence ? frame : null;
+        }
+
+        void clear() {
+            for (Frame frame : frames) frame.reset(NO_BASELINE);
+        }
+    }
+
+    static int zigzag(int v) {
+        return (v << 1) ^ (v >> 31);
+    }
+
+    static int unzigzag(int v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /** Tampon d'écriture réutilisable */
+    static final class ByteWriter {
+        byte[] buffer = new byte[256];
+        int length;
+
+        void clear() {
+            length = 0;
+        }
+
+        void writeByte(int b) {
+            if (length == buffer.length) buffer = Arrays.copyOf(buffer, length * 2);
+            buffer[length++] = (byte) b;
+        }
+
+        void writeVarInt(int v) {
+            while ((v & ~0x7F) != 0) {
+                writeByte((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            writeByte(v);
+        }
+    }
+
+    /** Lecture réutilisable : reset avant chaque paquet */
+    static final class ByteReader {
+        private byte[] data;
+        private int position;
+
+        void reset(byte[] data) {
+            this.data = data;
+            position = 0;
+        }
+
+        int readByte() {
+            return data[position++] & 0xFF;
+        }
+
+        int readVarInt() {
+            int result = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = readByte();
+                result |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return result;
+            }
+            return result;
+        }
+    }
+}
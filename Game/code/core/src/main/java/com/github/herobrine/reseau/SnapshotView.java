@@ -0,0 +1,73 @@
+package com.github.herobrine.reseau;
+
+/**
+ * Ce qu'un membre d'une salle voit des instantanés : filtrage par zone d'intérêt.
+ * Les joueurs proches du sien (à NEAR_COLUMNS colonnes de tuiles près) sont envoyés à
+ * chaque instantané ; les plus lointains, hors de l'écran, ne sont rafraîchis qu'un
+ * instantané sur DISTANT_INTERVAL et répètent entre-temps la dernière position envoyée
+ * à ce membre, ce que le delta de SnapshotCodec réduit à l'id et un octet de drapeaux.
+ * La liste des joueurs reste complète : un joueur lointain ne disparaît pas chez le client.
+ *
+ * Toujours envoyés à jour : le joueur du membre, un joueur qui meurt ou arrive, et tous
+ * les joueurs dans les instantanés fiables (arrivée, fin de partie, redémarrage).
+ *
+ * Une vue par membre, avec ses propres instantanés de référence : le delta d'un membre
+ * est calculé contre ce que lui a reçu. Ses séquences se suivent sans trou, si bien que
+ * tous les emplacements de l'historique restent utilisables comme références.
+ */
+final class SnapshotView {
+    // Demi-largeur de la zone d'intérêt, en colonnes de Carte.TILE : une fenêtre de 1920 px en fait 32,
+    // plus une marge puisque la caméra ne centre pas toujours le joueur local
+    static final int NEAR_COLUMNS = 40;
+    // Joueurs lointains : un instantané sur 4, soit 7,5 par seconde
+    static final int DISTANT_INTERVAL = 4;
+
+    final SnapshotCodec.History history = new SnapshotCodec.History();
+    // Dernier instantané construit pour ce membre (copie : l'historique peut réutiliser son emplacement)
+    private final SnapshotCodec.Frame sent = new SnapshotCodec.Frame();
+    private int snapshotCount = 0;
+    private int sequence;
+
+    // firstSequence : plus récente que tout ce que le membre a pu recevoir auparavant
+    SnapshotView(int firstSequence) {
+        this.sequence = firstSequence - 1;
+    }
+
+    // Séquence du prochain instantané de ce membre
+    int nextSequence() {
+        return ++sequence;
+    }
+
+    /**
+     * Construit, dans l'historique du membre viewerId, son instantané de séquence sequence
+     * à partir de world, l'état courant de tous les joueurs de la salle.
+     */
+    SnapshotCodec.Frame build(int sequence, SnapshotCodec.Frame world, int viewerId, boolean everyone) {
+        SnapshotCodec.Frame frame = history.slot(sequence);
+        int viewer = world.indexOf(viewerId);
+        int viewerColumn = viewer >= 0 ? column(world.x[viewer]) : 0;
+        boolean refresh = everyone || snapshotCount % DISTANT_INTERVAL == 0;
+        snapshotCount++;
+
+        for (int i = 0; i < world.count; i++) {
+            int id = world.ids[i];
+            // même ordre d'un instantané à l'autre tant que la salle ne change pas
+            int previous = i < sent.count && sent.ids[i] == id ? i : sent.indexOf(id);
+            boolean current = refresh || viewer < 0 || id == viewerId || previous < 0
+                    || sent.dead[previous] != world.dead[i]
+                    || Math.abs(column(world.x[i]) - viewerColumn) <= NEAR_COLUMNS;
+            if (current) {
+                frame.add(id, world.x[i], world.y[i], world.dead[i]);
+            } else {
+                frame.add(id, sent.x[previous], sent.y[previous], sent.dead[previous]);
+            }
+        }
+        sent.copyFrom(frame);
+        return frame;
+    }
+
+    // Colonne de tuile d'une position quantifiée
+    private static int column(int quantizedX) {
+        return Math.floorDiv(quantizedX, SnapshotCodec.POSITION_STEPS_PER_TILE);
+    }
+}
@@ -12,7 +12,9 @@ public class Lwjgl3Launcher {
     }
 
     private static Lwjgl3Application createApplication() {
-        return new Lwjgl3Application(new Main(), getDefaultConfiguration());
+        //// Simulation ticks per second, independent of the display refresh rate (-Dherobrine.simulationHz=...).
+        int simulationHz = Integer.getInteger("herobrine.simulationHz", Main.DEFAULT_SIMULATION_HZ);
+        return new Lwjgl3Application(new Main(simulationHz), getDefaultConfiguration());
     }
 
     private static Lwjgl3ApplicationConfiguration getDefaultConfiguration() {
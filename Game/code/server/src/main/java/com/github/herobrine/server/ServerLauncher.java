@@ -0,0 +1,37 @@
+package com.github.herobrine.server;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.github.herobrine.reseau.GameServer;
+
+import java.io.IOException;
+
+/** Launches the dedicated server (headless: no window, no OpenGL). */
+public class ServerLauncher {
+    public static void main(String[] args) {
+        HeadlessApplicationConfiguration configuration = new HeadlessApplicationConfiguration();
+        //// GameServer runs its own simulation ticks; the headless loop only provides Gdx.files and Gdx.app
+        //// and keeps the application alive, so it can idle at a very low rate.
+        configuration.updatesPerSecond = 1;
+        new HeadlessApplication(new ApplicationAdapter() {
+            private GameServer server;
+
+            @Override
+            public void create() {
+                try {
+                    server = new GameServer();
+                } catch (IOException e) {
+                    Gdx.app.error("Server", "Impossible de démarrer le serveur", e);
+                    Gdx.app.exit();
+                }
+            }
+
+            @Override
+            public void dispose() {
+                if (server != null) server.stop();
+            }
+        }, configuration);
+    }
+}
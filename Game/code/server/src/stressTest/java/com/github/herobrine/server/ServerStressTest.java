@@ -0,0 +1,264 @@
+package com.github.herobrine.server;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.esotericsoftware.kryonet.Client;
+import com.esotericsoftware.kryonet.Connection;
+import com.esotericsoftware.kryonet.Listener;
+import com.github.herobrine.Joueur;
+import com.github.herobrine.reseau.GameServer;
+import com.github.herobrine.reseau.Network;
+import com.github.herobrine.reseau.PacketJoinRoom;
+import com.github.herobrine.reseau.PacketLobbyConfig;
+import com.github.herobrine.reseau.PacketPlayerInput;
+import com.github.herobrine.reseau.PacketRestartAck;
+import com.github.herobrine.reseau.PacketRestartRequest;
+import com.github.herobrine.reseau.PacketWorldSnapshot;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Test de charge d'un GameServer local par de nombreux clients simulés : chacun rejoint une
+ * salle et envoie 60 entrées par seconde en UDP, pendant qu'un autre thread redémarre des
+ * salles, les renvoie au menu et reconnecte des clients. Tout changement d'état du serveur
+ * passe par la file de commandes de sa boucle de simulation ; le test échoue si les
+ * instantanés cessent d'arriver, si un thread client lève une exception ou s'il reste des
+ * salles une fois tous les clients déconnectés.
+ *
+ * En ligne de commande : server:stressTest --args="[clients] [salles] [secondes] [niveau]"
+ */
+public class ServerStressTest {
+    private static final int INPUT_HZ = 60;
+    private static final long ROOM_CLEANUP_TIMEOUT_MS = 5000L;
+
+    private final int clientCount;
+    private final int roomCount;
+    private final int seconds;
+    private final String levelPath;
+    // Remplacés par le thread de perturbation, lus par le thread des entrées
+    private final AtomicReferenceArray<Client> clients;
+    private final int[] sequences; // thread des entrées seulement
+    private final AtomicLong snapshots = new AtomicLong();
+    private final AtomicLong snapshotBytes = new AtomicLong();
+    private final AtomicLong restartAcks = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private volatile boolean running = true;
+
+    private ServerStressTest(int clientCount, int roomCount, int seconds, String levelPath) {
+        this.clientCount = clientCount;
+        this.roomCount = Math.max(1, Math.min(roomCount, clientCount));
+        this.seconds = seconds;
+        this.levelPath = levelPath;
+        this.clients = new AtomicReferenceArray<>(clientCount);
+        this.sequences = new int[clientCount];
+    }
+
+    public static void main(String[] args) {
+        int clientCount = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int roomCount = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        String levelPath = args.length > 3 ? args[3] : "assets/levels/level1.txt";
+
+        HeadlessApplicationConfiguration configuration = new HeadlessApplicationConfiguration();
+        configuration.updatesPerSecond = 1;
+        new HeadlessApplication(new ApplicationAdapter() {
+            @Override
+            public void create() {
+                Thread runner = new Thread(() -> {
+                    boolean ok = new ServerStressTest(clientCount, roomCount, seconds, levelPath).run();
+                    System.exit(ok ? 0 : 1);
+                }, "ServerStressTest");
+                runner.setDaemon(true);
+                runner.start();
+            }
+        }, configuration);
+    }
+
+    private boolean run() {
+        GameServer server;
+        try {
+            server = new GameServer();
+        } catch (IOException e) {
+            Gdx.app.error("StressTest", "Impossible de démarrer le serveur", e);
+            return false;
+        }
+
+        try {
+            for (int i = 0; i < clientCount; i++) {
+                clients.set(i, connect(i));
+            }
+            for (int room = 0; room < roomCount; room++) {
+                sendLobbyConfig(room);
+            }
+        } catch (IOException e) {
+            Gdx.app.error("StressTest", "Connexion d'un client impossible", e);
+            server.stop();
+            return false;
+        }
+        System.out.println(clientCount + " clients connectés dans " + roomCount + " salles.");
+
+        Thread inputs = new Thread(this::sendInputs, "StressInputs");
+        Thread chaos = new Thread(() -> disturb(server), "StressChaos");
+        inputs.start();
+        chaos.start();
+
+        long start = System.nanoTime();
+        long lastSnapshots = 0L;
+        boolean stalled = false;
+        for (int s = 1; s <= seconds; s++) {
+            sleep(1000L);
+            long total = snapshots.get();
+            long perSecond = total - lastSnapshots;
+            lastSnapshots = total;
+            System.out.printf("t=%2ds  instantanés : %d/s (%.1f par client)  %.0f octets/s par joueur  salles : %d%n",
+                    s, perSecond, perSecond / (float) clientCount,
+                    server.getSnapshotBytesPerSecondPerPlayer(), server.getRoomCount());
+            if (perSecond == 0) stalled = true;
+        }
+        running = false;
+        join(inputs);
+        join(chaos);
+        float elapsed = (System.nanoTime() - start) / 1e9f;
+
+        for (int i = 0; i < clientCount; i++) {
+            Client client = clients.get(i);
+            if (client != null) client.stop();
+        }
+        long deadline = System.currentTimeMillis() + ROOM_CLEANUP_TIMEOUT_MS;
+        while (server.getRoomCount() > 0 && System.currentTimeMillis() < deadline) {
+            sleep(50L);
+        }
+        int leftoverRooms = server.getRoomCount();
+        server.stop();
+
+        System.out.printf("Instantanés reçus : %d (%.1f par client et par seconde), %.0f octets par instantané%n",
+                snapshots.get(), snapshots.get() / elapsed / clientCount,
+                snapshots.get() > 0 ? snapshotBytes.get() / (float) snapshots.get() : 0f);
+        System.out.println("Redémarrages confirmés : " + restartAcks.get() + ", erreurs : " + errors.get()
+                + ", salles restantes : " + leftoverRooms);
+
+        boolean ok = !stalled && errors.get() == 0 && leftoverRooms == 0;
+        System.out.println(ok ? "OK" : "ÉCHEC");
+        return ok;
+    }
+
+    private Client connect(int index) throws IOException {
+        Client client = new Client(Network.CLIENT_WRITE_BUFFER_SIZE, Network.OBJECT_BUFFER_SIZE);
+        Network.register(client);
+        client.addListener(new Listener() {
+            @Override
+            public void received(Connection c, Object o) {
+                if (o instanceof PacketWorldSnapshot snapshot) {
+                    snapshots.incrementAndGet();
+                    snapshotBytes.addAndGet(snapshot.dataLength);
+                    Network.free(snapshot);
+                } else if (o instanceof PacketRestartRequest request) {
+                    PacketRestartAck ack = new PacketRestartAck();
+                    ack.restartId = request.restartId;
+                    c.sendTCP(ack);
+                    restartAcks.incrementAndGet();
+                }
+            }
+        });
+        client.start();
+        client.connect(5000, "localhost", Network.TCP_PORT, Network.UDP_PORT);
+
+        PacketJoinRoom join = new PacketJoinRoom();
+        join.roomName = roomName(index % roomCount);
+        client.sendTCP(join);
+        return client;
+    }
+
+    private static String roomName(int room) {
+        return "stress-" + room;
+    }
+
+    // Le premier client de chaque salle joue l'hôte ; la partie démarre quand tous ses clients l'ont rejointe
+    private void sendLobbyConfig(int room) {
+        Client host = clients.get(room);
+        if (host == null || !host.isConnected()) return;
+        PacketLobbyConfig config = new PacketLobbyConfig();
+        config.levelPath = levelPath;
+        config.expectedPlayers = (clientCount - room + roomCount - 1) / roomCount;
+        host.sendTCP(config);
+    }
+
+    // Une entrée par client et par tick, les précédentes répétées comme le fait GameClient
+    private void sendInputs() {
+        Random random = new Random(1);
+        PacketPlayerInput packet = new PacketPlayerInput();
+        packet.inputs = new byte[4];
+        long period = 1_000_000_000L / INPUT_HZ;
+        long next = System.nanoTime();
+        while (running) {
+            try {
+                for (int i = 0; i < clientCount; i++) {
+                    Client client = clients.get(i);
+                    if (client == null || !client.isConnected()) continue;
+                    System.arraycopy(packet.inputs, 0, packet.inputs, 1, packet.inputs.length - 1);
+                    packet.inputs[0] = (byte) (Joueur.INPUT_RIGHT | (random.nextInt(8) == 0 ? Joueur.INPUT_JUMP : 0));
+                    packet.sequence = ++sequences[i];
+                    Network.sendUnreliable(client, packet);
+                }
+            } catch (RuntimeException e) {
+                errors.incrementAndGet();
+                e.printStackTrace();
+            }
+            next += period;
+            long wait = next - System.nanoTime();
+            if (wait > 0) sleep(wait / 1_000_000L);
+        }
+    }
+
+    // Redémarrages, retours au menu et reconnexions pendant que les entrées arrivent
+    private void disturb(GameServer server) {
+        Random random = new Random(2);
+        while (running) {
+            int room = random.nextInt(roomCount);
+            try {
+                switch (random.nextInt(3)) {
+                    case 0:
+                        server.restartGame(roomName(room), null);
+                        break;
+                    case 1:
+                        server.broadcastReturnToMenu(roomName(room), "Test de charge");
+                        sendLobbyConfig(room);
+                        break;
+                    default:
+                        // jamais l'hôte d'une salle, qui doit rester celui qui la configure
+                        int index = roomCount + random.nextInt(Math.max(1, clientCount - roomCount));
+                        if (index >= clientCount) break;
+                        Client old = clients.getAndSet(index, null);
+                        if (old != null) old.stop();
+                        clients.set(index, connect(index));
+                        break;
+                }
+            } catch (IOException | RuntimeException e) {
+                errors.incrementAndGet();
+                e.printStackTrace();
+            }
+            sleep(20L + random.nextInt(30));
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void join(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}